@@ -0,0 +1,159 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// JMH version of the first rows of java Benchmark, over the same generated tables.
+// JMH refuses benchmarks in the default package and a named package cannot refer to the project classes,
+// so they are reached through method handles: held in static finals, the JIT inlines them like direct calls.
+// hasCycle and computeRanks drop the cached topological order first, so every call computes it again.
+// Run through BenchmarkMain, which adds the GC profiler: allocation rates are reported next to the times.
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmarks {
+    private static final MethodHandle GENERATE_LAYERED;
+    private static final MethodHandle GENERATE_CHAIN;
+    private static final MethodHandle GENERATE_FAN;
+    private static final MethodHandle GENERATE_CYCLIC;
+    private static final MethodHandle PARSE;
+    private static final MethodHandle NEW_GRAPH;
+    private static final MethodHandle RESTORE_TOPOLOGY;
+    private static final MethodHandle HAS_CYCLE;
+    private static final MethodHandle COMPUTE_RANKS;
+    private static final MethodHandle COMPUTE_EARLIEST_TIME;
+    private static final MethodHandle COMPUTE_LATEST_TIME;
+    private static final MethodHandle SET_OUTPUT;
+    private static final MethodHandle DISPLAY_CRITICAL_PATH;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> generator = Class.forName("GraphGenerator");
+            Class<?> parser = Class.forName("TableParser");
+            Class<?> table = Class.forName("ConstraintTable");
+            Class<?> graph = Class.forName("Graph");
+            Class<?> topology = Class.forName("TopologicalOrder");
+            MethodType layers = MethodType.methodType(Path.class, Path.class, int.class, int.class, int.class, long.class);
+            MethodType length = MethodType.methodType(Path.class, Path.class, int.class);
+            GENERATE_LAYERED = lookup.findStatic(generator, "layered", layers);
+            GENERATE_CHAIN = lookup.findStatic(generator, "chain", length);
+            GENERATE_FAN = lookup.findStatic(generator, "fan", length);
+            GENERATE_CYCLIC = lookup.findStatic(generator, "cyclic", layers);
+            PARSE = lookup.findStatic(parser, "parse", MethodType.methodType(table, String.class));
+            NEW_GRAPH = lookup.findConstructor(graph, MethodType.methodType(void.class, String.class));
+            // Package-private, both classes are in the unnamed module so it can be opened to this one
+            RESTORE_TOPOLOGY = MethodHandles.privateLookupIn(graph, MethodHandles.lookup())
+                    .findVirtual(graph, "restoreTopology", MethodType.methodType(void.class, topology));
+            HAS_CYCLE = lookup.findVirtual(graph, "hasCycle", MethodType.methodType(boolean.class, boolean.class));
+            COMPUTE_RANKS = lookup.findVirtual(graph, "computeRanks", MethodType.methodType(void.class, boolean.class));
+            COMPUTE_EARLIEST_TIME = lookup.findVirtual(graph, "computeEarliestTime", MethodType.methodType(void.class, boolean.class));
+            COMPUTE_LATEST_TIME = lookup.findVirtual(graph, "computeLatestTime", MethodType.methodType(void.class, boolean.class));
+            SET_OUTPUT = lookup.findVirtual(graph, "setOutput", MethodType.methodType(void.class, PrintStream.class));
+            DISPLAY_CRITICAL_PATH = lookup.findVirtual(graph, "displayCriticalPath", MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Table {
+        @Param({"layered", "chain", "fan", "cyclic"})
+        public String shape;
+
+        @Param({"1"})
+        public int scale;
+
+        Path directory;
+        String filepath;
+        // Built once, like in Main.analyse the sweeps share its topological order
+        Object graph;
+
+        @Setup(Level.Trial)
+        public void generate() throws Throwable {
+            directory = Files.createTempDirectory("graph-jmh");
+            Path file = directory.resolve(shape + ".txt");
+            switch (shape) {
+                case "layered" -> GENERATE_LAYERED.invoke(file, 100 * scale, 1000, 3, 42L);
+                case "chain" -> GENERATE_CHAIN.invoke(file, 100_000 * scale);
+                case "fan" -> GENERATE_FAN.invoke(file, 100_000 * scale);
+                case "cyclic" -> GENERATE_CYCLIC.invoke(file, 100 * scale, 1000, 3, 42L);
+                default -> throw new IllegalArgumentException("Unknown shape " + shape);
+            }
+            filepath = file.toString();
+            graph = NEW_GRAPH.invoke(filepath);
+            // Displays are measured without the console
+            SET_OUTPUT.invoke(graph, new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws Exception {
+            Files.deleteIfExists(Path.of(filepath));
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Benchmark
+    public Object parser(Table table) throws Throwable {
+        return PARSE.invoke(table.filepath);
+    }
+
+    @Benchmark
+    public Object constructor(Table table) throws Throwable {
+        return NEW_GRAPH.invoke(table.filepath);
+    }
+
+    @Benchmark
+    public boolean hasCycle(Table table) throws Throwable {
+        RESTORE_TOPOLOGY.invoke(table.graph, null);
+        return (boolean) HAS_CYCLE.invoke(table.graph, false);
+    }
+
+    @Benchmark
+    public Object computeRanks(Table table) throws Throwable {
+        RESTORE_TOPOLOGY.invoke(table.graph, null);
+        COMPUTE_RANKS.invoke(table.graph, false);
+        return table.graph;
+    }
+
+    @Benchmark
+    public Object computeEarliestTime(Table table) throws Throwable {
+        COMPUTE_EARLIEST_TIME.invoke(table.graph, false);
+        return table.graph;
+    }
+
+    @Benchmark
+    public Object computeLatestTime(Table table) throws Throwable {
+        COMPUTE_LATEST_TIME.invoke(table.graph, false);
+        return table.graph;
+    }
+
+    @Benchmark
+    public Object displayCriticalPath(Table table) throws Throwable {
+        DISPLAY_CRITICAL_PATH.invoke(table.graph);
+        return table.graph;
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Non-interactive analysis of many constraint tables at once, run with:
+//   java BatchRunner <directory or glob> [trace directory]
+// Every table is analysed on its own thread into its own buffer, then written to <trace directory>/<table>.txt.
+// A summary line per table is printed once all of them are done.
+
+public class BatchRunner {
+    public record TableResult(String table, boolean schedulingGraph, int projectDuration, long[] criticalPath, String error) {
+        public String status() {
+            if (error != null) {
+                return TextColor.RED + "Error: " + error + TextColor.RESET;
+            }
+            return schedulingGraph ? TextColor.GREEN + "Scheduling graph" + TextColor.RESET : TextColor.RED + "Not a scheduling graph" + TextColor.RESET;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Usage: java BatchRunner <directory or glob> [trace directory]");
+            return;
+        }
+        List<Path> tables = findTables(args[0]);
+        Path traceDirectory = Path.of(args.length > 1 ? args[1] : "traces");
+        Files.createDirectories(traceDirectory);
+
+        long start = System.nanoTime();
+        List<TableResult> results = run(tables, traceDirectory);
+        long elapsed = System.nanoTime() - start;
+
+        for (TableResult result : results) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TextColor.CYAN).append(result.table()).append(TextColor.RESET).append("\t").append(result.status());
+            if (result.schedulingGraph()) {
+                sb.append("\tDuration: ").append(TextColor.YELLOW).append(result.projectDuration()).append(TextColor.RESET);
+                sb.append("\tCritical path: ");
+                for (int i = 0; i < result.criticalPath().length; i++) {
+                    sb.append(result.criticalPath()[i]);
+                    if (i != result.criticalPath().length - 1) {
+                        sb.append(" -> ");
+                    }
+                }
+            }
+            System.out.println(sb);
+        }
+        System.out.println(TextColor.PURPLE + results.size() + TextColor.RESET + " tables analysed in " + TextColor.PURPLE + (elapsed / 1_000_000) + TextColor.RESET + " ms, traces in " + traceDirectory);
+    }
+
+    public static List<TableResult> run(List<Path> tables, Path traceDirectory) throws InterruptedException {
+        List<Future<TableResult>> futures = new ArrayList<>();
+        ExecutorService executor = newExecutor();
+        try {
+            for (Path table : tables) {
+                futures.add(executor.submit(() -> analyse(table, traceDirectory)));
+            }
+
+            // Results keep the order of the tables
+            List<TableResult> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new TableResult(tableName(tables.get(i)), false, -1, new long[0], String.valueOf(e.getCause())));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static TableResult analyse(Path table, Path traceDirectory) throws IOException {
+        String name = tableName(table);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        out.println(name);
+
+        TableResult result;
+        try {
+            TableValidator.Report validation = TableValidator.validate(table.toString());
+            if (!validation.isValid()) {
+                out.print(validation);
+                int errors = validation.getErrors().size();
+                result = new TableResult(name, false, -1, new long[0], errors + (errors == 1 ? " error" : " errors") + " in the table");
+            } else {
+                Graph graph = new Graph(table.toString(), validation.getTable(), Main.reduce());
+                boolean schedulingGraph = Main.analyse(graph, out);
+                result = schedulingGraph
+                        ? new TableResult(name, true, graph.getProjectDuration(), graph.getCriticalPath(), null)
+                        : new TableResult(name, false, -1, new long[0], null);
+            }
+        } catch (Exception e) {
+            out.println(TextColor.RED + "Error: " + e.getMessage() + TextColor.RESET);
+            result = new TableResult(name, false, -1, new long[0], String.valueOf(e.getMessage()));
+        }
+        out.flush();
+
+        // The trace file gets the same output as the console, without colours
+        try (TraceWriter trace = new TraceWriter(null, Files.newOutputStream(traceDirectory.resolve(name + ".txt")))) {
+            buffer.writeTo(trace);
+        }
+        return result;
+    }
+
+    // A directory gives all its .txt tables, anything else is a glob such as "src/tests/table *.txt"
+    static List<Path> findTables(String pattern) throws IOException {
+        Path path = Path.of(pattern);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            matcher = path.getFileSystem().getPathMatcher("glob:*.txt");
+        } else {
+            directory = path.getParent() == null ? Path.of(".") : path.getParent();
+            matcher = path.getFileSystem().getPathMatcher("glob:" + path.getFileName());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> Files.isRegularFile(file) && matcher.matches(file.getFileName())).sorted().toList();
+        }
+    }
+
+    private static String tableName(Path table) {
+        String name = table.getFileName().toString();
+        return name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    private static ExecutorService newExecutor() {
+        // Virtual threads when the runtime provides them (Java 21+), otherwise one platform thread per core
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+}
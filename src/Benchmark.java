@@ -0,0 +1,118 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Micro-benchmark of the graph pipeline over generated tables, run with: java Benchmark [scale]
+// Reports average time, throughput and the allocation rate of the benchmarking thread for each operation.
+// Allocations made by worker threads (parallel parsing, parallel sweeps) are not counted.
+
+public class Benchmark {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final int MIN_ITERATIONS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are published here so the JIT cannot drop the benchmarked calls
+    private static volatile Object sink;
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        Path directory = Files.createTempDirectory("graph-benchmark");
+
+        Path[] tables = {
+                GraphGenerator.layered(directory.resolve("layered.txt"), 100 * scale, 1000, 3, 42),
+                GraphGenerator.chain(directory.resolve("chain.txt"), 100_000 * scale),
+                GraphGenerator.fan(directory.resolve("fan.txt"), 100_000 * scale),
+                GraphGenerator.cyclic(directory.resolve("cyclic.txt"), 100 * scale, 1000, 3, 42),
+        };
+
+        System.out.printf("%-12s %-24s %14s %12s %16s %12s%n", "Table", "Operation", "Time (ms/op)", "Ops/s", "Alloc (B/op)", "Alloc MB/s");
+        for (Path table : tables) {
+            String name = table.getFileName().toString().replace(".txt", "");
+            String filepath = table.toString();
+            Graph graph = new Graph(filepath);
+
+            run(name, "parser", () -> TableParser.parse(filepath));
+            run(name, "constructor", () -> new Graph(filepath));
+            run(name, "topological pass", () -> new TopologicalOrder(graph));
+            // The topological order is cached by the graph, it is dropped so that every call computes it again
+            run(name, "hasCycle", () -> { graph.restoreTopology(null); return graph.hasCycle(false); });
+            run(name, "computeRanks", () -> { graph.restoreTopology(null); graph.computeRanks(false); return graph; });
+            run(name, "computeEarliestTime", () -> { graph.computeEarliestTime(false); return graph; });
+            run(name, "computeLatestTime", () -> { graph.computeLatestTime(false); return graph; });
+            run(name, "displayCriticalPath", () -> { quietly(graph, graph::displayCriticalPath); return graph; });
+            if (!graph.hasCycle(false)) {
+                ListScheduler scheduler = graph.getListScheduler();
+                run(name, "list schedule k=1..256", () -> {
+                    int makespan = 0;
+                    for (int workers = 1; workers <= 256; workers++) {
+                        makespan += scheduler.schedule(workers).getMakespan();
+                    }
+                    return makespan;
+                });
+                ScenarioSet scenarios = graph.getScenarios(32);
+                run(name, "32 scenarios", () -> { scenarios.evaluate(); return scenarios; });
+                MonteCarlo simulation = graph.getMonteCarlo();
+                for (int v = 0; v < graph.size; v++) {
+                    if (v != graph.alpha && v != graph.omega && graph.durations[v] >= 0) {
+                        simulation.setDistribution(graph.ids[v], MonteCarlo.Shape.PERT, graph.durations[v] * 0.8, graph.durations[v], graph.durations[v] * 1.5);
+                    }
+                }
+                run(name, "monte carlo 100 draws", () -> simulation.run(100, 42).percentile(0.9));
+                // Written to a channel that discards everything, what is left is the formatting
+                WritableByteChannel discard = Channels.newChannel(OutputStream.nullOutputStream());
+                run(name, "export csv", () -> { GraphExporter.write(graph, GraphExporter.Format.CSV, discard); return graph; });
+                run(name, "export json", () -> { GraphExporter.write(graph, GraphExporter.Format.JSON, discard); return graph; });
+            }
+        }
+
+        for (Path table : tables) {
+            Files.deleteIfExists(table);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private static void run(String table, String operation, Operation body) throws Exception {
+        iterate(body, WARMUP_NANOS);
+
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long iterations = iterate(body, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        double nanosPerOp = (double) elapsed / iterations;
+        System.out.printf("%-12s %-24s %14.3f %12.1f %16d %12.1f%n", table, operation,
+                nanosPerOp / 1e6, 1e9 / nanosPerOp, allocated / iterations, allocated / 1e6 / (elapsed / 1e9));
+    }
+
+    private static long iterate(Operation body, long duration) throws Exception {
+        long start = System.nanoTime();
+        long iterations = 0;
+        while (iterations < MIN_ITERATIONS || System.nanoTime() - start < duration) {
+            sink = body.run();
+            iterations++;
+        }
+        return iterations;
+    }
+
+    private static void quietly(Graph graph, Runnable display) {
+        // Displays go to the graph's own output
+        graph.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            display.run();
+        } finally {
+            graph.setOutput(System.out);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+// Min-priority queue of distinct ints in [0, capacity): a bitset with one summary level per 64x reduction,
+// so adding and taking the smallest value touch one word per level (three levels for 260k values).
+
+public class BitQueue {
+    // levels[0] has one bit per value, each further level one bit per non-empty word of the level below
+    private final long[][] levels;
+
+    public BitQueue(int capacity) {
+        int count = 1;
+        for (long bits = capacity; bits > 64; bits = (bits + 63) / 64) {
+            count++;
+        }
+        levels = new long[count][];
+        long bits = Math.max(capacity, 1);
+        for (int level = 0; level < count; level++) {
+            levels[level] = new long[(int) ((bits + 63) / 64)];
+            bits = (bits + 63) / 64;
+        }
+    }
+
+    public boolean isEmpty() {
+        return levels[levels.length - 1][0] == 0;
+    }
+
+    public void add(int value) {
+        int index = value;
+        for (long[] level : levels) {
+            long word = level[index >>> 6];
+            level[index >>> 6] = word | (1L << index);
+            if (word != 0) {
+                // The levels above already know this word is not empty
+                return;
+            }
+            index >>>= 6;
+        }
+    }
+
+    // Removes and returns the smallest value
+    public int poll() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        int index = 0;
+        for (int level = levels.length - 1; level >= 0; level--) {
+            index = (index << 6) + Long.numberOfTrailingZeros(levels[level][index]);
+        }
+        int value = index;
+        for (long[] level : levels) {
+            level[index >>> 6] &= ~(1L << index);
+            if (level[index >>> 6] != 0) {
+                break;
+            }
+            index >>>= 6;
+        }
+        return value;
+    }
+
+    public void clear() {
+        for (long[] level : levels) {
+            Arrays.fill(level, 0);
+        }
+    }
+}
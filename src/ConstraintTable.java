@@ -0,0 +1,75 @@
+// Rows of a constraint table as primitive lists: id, duration and the ids of the predecessors of each task
+
+public class ConstraintTable {
+    final LongList ids;
+    final IntList durations;
+    final IntList predecessorStarts;
+    final LongList predecessors;
+
+    public ConstraintTable() {
+        this(16, 16);
+    }
+
+    public ConstraintTable(int rows, int predecessors) {
+        this.ids = new LongList(rows);
+        this.durations = new IntList(rows);
+        this.predecessorStarts = new IntList(rows);
+        this.predecessors = new LongList(predecessors);
+    }
+
+    public void addRow(long id, int duration) {
+        ids.add(id);
+        durations.add(duration);
+        predecessorStarts.add(predecessors.size());
+    }
+
+    // Adds a predecessor to the last row, duplicates are dropped when the graph is built
+    public void addPredecessor(long predecessor) {
+        predecessors.add(predecessor);
+    }
+
+    // Drops the last row and its predecessors, e.g. when the rest of its line turns out to be malformed
+    void removeLastRow() {
+        int last = rows() - 1;
+        predecessors.truncate(predecessorStarts.get(last));
+        ids.truncate(last);
+        durations.truncate(last);
+        predecessorStarts.truncate(last);
+    }
+
+    public int rows() {
+        return ids.size();
+    }
+
+    public long id(int row) {
+        return ids.get(row);
+    }
+
+    public int duration(int row) {
+        return durations.get(row);
+    }
+
+    public int predecessorStart(int row) {
+        return predecessorStarts.get(row);
+    }
+
+    public int predecessorEnd(int row) {
+        return row + 1 < rows() ? predecessorStarts.get(row + 1) : predecessors.size();
+    }
+
+    public long predecessor(int index) {
+        return predecessors.get(index);
+    }
+
+    public void append(ConstraintTable other) {
+        int offset = predecessors.size();
+        for (int row = 0; row < other.rows(); row++) {
+            ids.add(other.ids.get(row));
+            durations.add(other.durations.get(row));
+            predecessorStarts.add(other.predecessorStarts.get(row) + offset);
+        }
+        for (int i = 0; i < other.predecessors.size(); i++) {
+            predecessors.add(other.predecessors.get(i));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// All critical paths of an analysed graph, i.e. the alpha -> omega paths made of critical edges.
+// An edge u -> v is critical when both ends have zero total float and v starts as soon as u ends.
+// The number of paths to omega is counted for every vertex in one pass over the levels in descending order,
+// with saturating longs. The exact count is only redone with BigInteger when a count saturates.
+// Paths are enumerated lazily by a depth-first walk which only follows successors that still reach omega,
+// so every step of the walk ends in a path and nothing but the current path is kept in memory.
+
+public class CriticalPaths implements Iterable<long[]> {
+    private final Graph graph;
+    // Number of critical paths from each vertex to omega, Long.MAX_VALUE when saturated
+    private final long[] counts;
+    private final boolean saturated;
+
+    CriticalPaths(Graph graph) {
+        this.graph = graph;
+        this.counts = new long[graph.size];
+        int[] descending = graph.topology().descendingOrder();
+
+        boolean overflow = false;
+        for (int v : descending) {
+            if (v == graph.omega) {
+                counts[v] = totalFloat(v) == 0 ? 1 : 0;
+                continue;
+            }
+            long count = 0;
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                int successor = graph.successors[i];
+                if (isCritical(v, successor)) {
+                    count += counts[successor];
+                    if (count < 0) {
+                        count = Long.MAX_VALUE;
+                        overflow = true;
+                    }
+                }
+            }
+            counts[v] = count;
+        }
+        this.saturated = overflow;
+    }
+
+    // Exact number of critical paths
+    public BigInteger count() {
+        if (!saturated) {
+            return BigInteger.valueOf(counts[graph.alpha]);
+        }
+        BigInteger[] exact = new BigInteger[graph.size];
+        for (int v : graph.topology().descendingOrder()) {
+            if (v == graph.omega) {
+                exact[v] = BigInteger.valueOf(counts[v]);
+                continue;
+            }
+            BigInteger count = BigInteger.ZERO;
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                int successor = graph.successors[i];
+                if (isCritical(v, successor)) {
+                    count = count.add(exact[successor]);
+                }
+            }
+            exact[v] = count;
+        }
+        return exact[graph.alpha];
+    }
+
+    // Number of critical paths, Long.MAX_VALUE when there are more
+    public long saturatedCount() {
+        return counts[graph.alpha];
+    }
+
+    // Number of critical paths going from the task to omega, saturated like saturatedCount()
+    public long countFrom(long id) {
+        int v = graph.slotOf(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        return counts[v];
+    }
+
+    // Paths as arrays of task ids, alpha and omega left out, in ascending id order of the first differing task
+    @Override
+    public Iterator<long[]> iterator() {
+        return new PathIterator();
+    }
+
+    // At most limit paths, in the order of iterator()
+    public Stream<long[]> stream(long limit) {
+        long size = Math.min(limit, counts[graph.alpha]);
+        Spliterator<long[]> spliterator = Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false).limit(limit);
+    }
+
+    public Stream<long[]> stream() {
+        return stream(Long.MAX_VALUE);
+    }
+
+    private boolean isCritical(int from, int to) {
+        return totalFloat(from) == 0 && totalFloat(to) == 0
+                && graph.earliestTimes[from] + graph.durations[from] == graph.earliestTimes[to];
+    }
+
+    private int totalFloat(int v) {
+        return graph.latestTimes[v] - graph.earliestTimes[v];
+    }
+
+    private class PathIterator implements Iterator<long[]> {
+        // path[0 .. depth] is the current path, edge[d] the successor index taken from path[d]
+        private final int[] path = new int[graph.topology().levelCount + 1];
+        private final int[] edge = new int[path.length];
+        private int depth = -1;
+        private boolean ready;
+
+        PathIterator() {
+            if (counts[graph.alpha] > 0) {
+                path[0] = graph.alpha;
+                depth = 0;
+                descend();
+                ready = true;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ready && depth >= 0) {
+                advance();
+                ready = depth >= 0;
+            }
+            return ready;
+        }
+
+        @Override
+        public long[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            // path[0] is alpha and path[depth] omega
+            long[] ids = new long[depth - 1];
+            for (int d = 1; d < depth; d++) {
+                ids[d - 1] = graph.ids[path[d]];
+            }
+            return ids;
+        }
+
+        // Follows the first live critical successor until omega
+        private void descend() {
+            while (path[depth] != graph.omega) {
+                int v = path[depth];
+                int i = nextEdge(v, graph.successorOffsets[v]);
+                edge[depth] = i;
+                path[++depth] = graph.successors[i];
+            }
+        }
+
+        // Backtracks to the deepest vertex with another live critical successor, then descends from there
+        private void advance() {
+            while (--depth >= 0) {
+                int v = path[depth];
+                int i = nextEdge(v, edge[depth] + 1);
+                if (i < graph.successorOffsets[v + 1]) {
+                    edge[depth] = i;
+                    path[++depth] = graph.successors[i];
+                    descend();
+                    return;
+                }
+            }
+        }
+
+        private int nextEdge(int v, int from) {
+            int end = graph.successorOffsets[v + 1];
+            int i = from;
+            while (i < end && !(counts[graph.successors[i]] > 0 && isCritical(v, graph.successors[i]))) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Strongly connected components of the part of the graph the topological order could not reach, in O(V + E).
+// Tarjan's algorithm runs with an explicit stack so deep graphs cannot overflow the call stack. Every component
+// with more than one vertex, or with a vertex that is its own predecessor, holds at least one cycle: a witness
+// is found by a breadth-first search inside the component, from its smallest vertex back to itself.
+
+public class CycleFinder {
+    // ids: sorted ids of the component, cycle: ids of a witness cycle, the first id repeated at the end
+    public record Component(long[] ids, long[] cycle) {
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < cycle.length; i++) {
+                sb.append(TextColor.CYAN).append(cycle[i]).append(TextColor.RESET);
+                if (i != cycle.length - 1) {
+                    sb.append(" -> ");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final int UNVISITED = -1;
+
+    private final Graph graph;
+    // Tarjan state, per slot
+    private final int[] index;
+    private final int[] low;
+    private final boolean[] onStack;
+    // Component of each slot once assigned, -1 before
+    private final int[] componentOf;
+
+    private CycleFinder(Graph graph) {
+        this.graph = graph;
+        this.index = new int[graph.size];
+        this.low = new int[graph.size];
+        this.onStack = new boolean[graph.size];
+        this.componentOf = new int[graph.size];
+        Arrays.fill(index, UNVISITED);
+        Arrays.fill(componentOf, -1);
+    }
+
+    // Components holding a cycle, in ascending order of their smallest id
+    static List<Component> find(Graph graph) {
+        return new CycleFinder(graph).run(graph.topology());
+    }
+
+    private List<Component> run(TopologicalOrder topology) {
+        List<Component> components = new ArrayList<>();
+        if (!topology.cyclic) {
+            return components;
+        }
+
+        int size = graph.size;
+        int[] stack = new int[size];
+        int stackSize = 0;
+        // Call stack of the depth-first search: vertex and next successor index to look at
+        int[] callVertex = new int[size];
+        int[] callEdge = new int[size];
+        int counter = 0;
+        IntList members = new IntList();
+
+        for (int root = 0; root < size; root++) {
+            // Vertices placed in the topological order are on no cycle
+            if (topology.levels[root] >= 0 || index[root] != UNVISITED) {
+                continue;
+            }
+            int depth = 0;
+            callVertex[0] = root;
+            callEdge[0] = graph.successorOffsets[root];
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int v = callVertex[depth];
+                if (callEdge[depth] < graph.successorOffsets[v + 1]) {
+                    int w = graph.successors[callEdge[depth]++];
+                    if (topology.levels[w] >= 0) {
+                        continue;
+                    }
+                    if (index[w] == UNVISITED) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callVertex[depth] = w;
+                        callEdge[depth] = graph.successorOffsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // All successors done: v is the root of a component if nothing below reaches higher
+                if (low[v] == index[v]) {
+                    members.clear();
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        componentOf[w] = v;
+                        members.add(w);
+                    } while (w != v);
+                    if (members.size() > 1 || hasSelfLoop(v)) {
+                        components.add(component(members));
+                    }
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callVertex[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+
+        components.sort((a, b) -> Long.compare(a.ids()[0], b.ids()[0]));
+        return components;
+    }
+
+    private boolean hasSelfLoop(int v) {
+        for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+            if (graph.successors[i] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Component component(IntList members) {
+        int[] slots = members.toArray();
+        Arrays.sort(slots);
+        long[] ids = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            ids[i] = graph.ids[slots[i]];
+        }
+        return new Component(ids, witness(slots));
+    }
+
+    // Shortest cycle through the smallest slot of the component, following only edges inside the component
+    private long[] witness(int[] slots) {
+        int start = slots[0];
+        int component = componentOf[start];
+        int[] parent = new int[slots.length];
+        int[] queue = new int[slots.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        parent[0] = -1;
+
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                int w = graph.successors[i];
+                if (componentOf[w] != component) {
+                    continue;
+                }
+                if (w == start) {
+                    return cycle(slots, parent, v);
+                }
+                int position = Arrays.binarySearch(slots, w);
+                if (parent[position] == 0) {
+                    parent[position] = v + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        throw new IllegalStateException("Component of " + graph.ids[start] + " has no cycle");
+    }
+
+    // parent holds the slot + 1 of the vertex each one was reached from, 0 when not reached yet
+    private long[] cycle(int[] slots, int[] parent, int last) {
+        IntList reversed = new IntList();
+        reversed.add(slots[0]);
+        for (int v = last; v != slots[0]; v = parent[Arrays.binarySearch(slots, v)] - 1) {
+            reversed.add(v);
+        }
+        reversed.add(slots[0]);
+        long[] cycle = new long[reversed.size()];
+        for (int i = 0; i < cycle.length; i++) {
+            cycle[i] = graph.ids[reversed.get(cycle.length - 1 - i)];
+        }
+        return cycle;
+    }
+}
@@ -1,253 +1,390 @@
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 public class Graph {
     private static final String EMPTY_SYMBOL = "-";
+    // Streamed displays hand their text to the output in blocks of about this many characters
+    private static final int RENDER_BLOCK = 64 * 1024;
+
+    final String filename;
+
+    // Vertices are stored in slots sorted by id, tasks added by addTask after them before omega,
+    // edges in compressed sparse row arrays:
+    // the predecessors of slot v are predecessors[predecessorOffsets[v] .. predecessorOffsets[v + 1]]
+    int size;
+    long[] ids;
+    int[] durations;
+    int[] predecessorOffsets;
+    int[] predecessors;
+    int[] successorOffsets;
+    int[] successors;
+    int alpha;
+    int omega;
+
+    // Slot of each task id, alpha and omega are not in it
+    private LongIntMap slotOfId;
+    // Whether alpha and omega can be shown as 0 and the number of tasks + 1, i.e. no task has one of these ids
+    private boolean numberedEnds;
+
+    int[] ranks;
+    int[] earliestTimes;
+    int[] latestTimes;
+
+    private TopologicalOrder topology;
+    // Set by the edge edits: the graph is acyclic and its ranks are up to date, the order is built from them when needed
+    private boolean rankedOnly;
+    // Edges removed so far by reduceTransitively
+    private int impliedEdges;
+
+    // Displays and logs are written here, so that several graphs can be analysed concurrently
+    private PrintStream out = System.out;
+
+    // Per-phase timers and counters, always on: recording a phase does not allocate
+    final GraphMetrics metrics = new GraphMetrics();
+    private ScheduleUpdater updater;
 
-    private final String filename;
-    private final List<Vertex> vertices;
     public Graph(String filepath) {
+        filename = filepath;
 
-        try{
-            filename = filepath;
-            BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), StandardCharsets.UTF_8));
-
-            // Each line of the file is a vertex
-            String line;
-            vertices = new ArrayList<>();
-            while ((line = br.readLine()) != null) {
-                vertices.add(new Vertex(line));
-            }
-
+        // Each line of the file is a vertex: id, duration, then the ids of its predecessors
+        long start = System.nanoTime();
+        ConstraintTable table;
+        try {
+            table = TableParser.parse(filepath);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        // Create source vertex
-        vertices.add(new Vertex(0,0));
+        buildStorage(table);
+        metrics.record(GraphMetrics.Phase.PARSE, start, size, predecessors.length);
 
-        // For vertices with no predecessors, add 0 (alpha) as predecessor except for source vertex itself
-        for (Vertex v : vertices) {
-            if (v.predecessors.isEmpty() && v.id != 0) {
-                v.addPredecessor(0);
-            }
-        }
+        computeRanks(false);
+        computeEarliestTime(false);
+        computeLatestTime(false);
 
-        // Create sink vertex (omega)
-        Vertex sink = new Vertex(vertices.size(), 0);
+    }
 
-        // Check which vertices are predecessors of the sink
-        for (Vertex v : vertices) {
-            boolean isPredecessor = false;
-            for (Vertex v2 : vertices) {
-                if (v2.predecessors.contains(v.id)) {
-                    isPredecessor = true;
-                    break;
-                }
-            }
-            if (!isPredecessor) {
-                sink.addPredecessor(v.id);
-            }
-        }
-        vertices.add(sink);
+    // Graph of a table already parsed, name is only used for display
+    public Graph(String name, ConstraintTable table) {
+        this(name, table, false);
+    }
+
+    // reduce: edges implied by longer paths are removed before the first sweep, when the graph can be scheduled
+    public Graph(String name, ConstraintTable table, boolean reduce) {
+        filename = name;
 
-        // Sort vertices by id
-        vertices.sort(Comparator.comparingInt(v -> v.id));
+        long start = System.nanoTime();
+        buildStorage(table);
+        metrics.record(GraphMetrics.Phase.PARSE, start, size, predecessors.length);
 
+        if (reduce && !topology().cyclic && !hasNegativeDuration(false)) {
+            reduceTransitively(false);
+        }
         computeRanks(false);
         computeEarliestTime(false);
         computeLatestTime(false);
-
     }
-    private Graph(Graph graph) {
-        filename = graph.filename;
 
-        vertices = new ArrayList<>();
-        for (Vertex v : graph.vertices) {
-            vertices.add(new Vertex(v));
+    private void buildStorage(ConstraintTable table) {
+        int rows = table.rows();
+
+        // Source vertex (alpha) and sink vertex (omega) have reserved slots at both ends, tasks in between
+        // are sorted by id. Alpha and omega are not tasks: no id resolves to them, so any task id can be used.
+        // Their ids below are only stored, they are displayed through label()
+        size = rows + 2;
+        alpha = 0;
+        omega = size - 1;
+        long[] taskIds = table.ids.toArray();
+        Arrays.sort(taskIds);
+        ids = new long[size];
+        System.arraycopy(taskIds, 0, ids, 1, rows);
+        ids[alpha] = 0;
+        ids[omega] = rows + 1;
+        indexSlots();
+
+        durations = new int[size];
+        int[] slotOfRow = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            int slot = slotOfId.get(table.id(row));
+            slotOfRow[row] = slot;
+            durations[slot] = table.duration(row);
         }
 
+        // For vertices with no predecessors, add alpha as predecessor, vertices that are no one's predecessor
+        // become predecessors of the sink
+        int rawCount = table.predecessors.size();
+        predecessorOffsets = new int[size + 1];
+        GraphArrays.PredecessorBuilder builder = new GraphArrays.PredecessorBuilder(filename, size, slotOfRow,
+                table.predecessorStarts, rawCount, IntArray.of(new int[rawCount]), IntArray.of(predecessorOffsets));
+        predecessors = new int[builder.count(table.predecessors, LongArray.of(ids), slotOfId)];
+        builder.fill(IntArray.of(predecessors));
+
+        buildSuccessors();
+        topology = null;
+        rankedOnly = false;
+        updater = null;
+
+        ranks = new int[size];
+        Arrays.fill(ranks, -1);
+        earliestTimes = new int[size];
+        latestTimes = new int[size];
     }
 
-    public boolean hasCycle(boolean log) {
-        StringBuilder cycleLog = new StringBuilder();
-        cycleLog.append(TextColor.YELLOW + "Checking for cycles by successive deletion of entry points (i.e. no predecessors)" + TextColor.RESET).append("\n");
-
-        // Apply successive removal of vertices with no predecessors to a copy of the graph
-        Graph graph = new Graph(this);
-
-        // While the graph has vertices
-        while (!graph.vertices.isEmpty()) {
-            // Find vertices with no predecessors
-            List<Vertex> noPredecessors = new ArrayList<>();
-
-            for (Vertex v : graph.vertices) {
-                if (v.predecessors.isEmpty()) {
-                    noPredecessors.add(v);
-                }
-            }
+    private void buildSuccessors() {
+        successorOffsets = new int[size + 1];
+        successors = new int[predecessors.length];
+        GraphArrays.reverse(size, predecessors.length, IntArray.of(predecessorOffsets), IntArray.of(predecessors),
+                IntArray.of(successorOffsets), IntArray.of(successors));
+    }
 
-            cycleLog.append("Entry points: ");
-            if (noPredecessors.isEmpty()) {
-                cycleLog.append(TextColor.RED + "None" + TextColor.RESET + "\n");
-            } else {
-                for (Vertex v : noPredecessors) {
-                    cycleLog.append(TextColor.CYAN).append(v.id).append(" ").append(TextColor.RESET);
+    public boolean hasCycle(boolean log) {
+        if (!log && topology == null && rankedOnly) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean computed = topology == null;
+        TopologicalOrder topology = topology();
+        metrics.record(GraphMetrics.Phase.CYCLE_CHECK, start, computed ? size : 0, computed ? predecessors.length : 0);
+
+        if (log) {
+            StringBuilder cycleLog = new StringBuilder();
+            cycleLog.append(TextColor.YELLOW + "Checking for cycles by successive deletion of entry points (i.e. no predecessors)" + TextColor.RESET).append("\n");
+
+            // Each level of the topological order holds the entry points of one round of successive deletion
+            for (int level = 0; level < topology.levelCount; level++) {
+                cycleLog.append("Entry points: ");
+                for (int i = topology.levelOffsets[level]; i < topology.levelOffsets[level + 1]; i++) {
+                    cycleLog.append(TextColor.CYAN).append(label(topology.order[i])).append(" ").append(TextColor.RESET);
                 }
                 cycleLog.append("\n");
             }
 
-            // If there are no vertices with no predecessors, there is a cycle
-            if (noPredecessors.isEmpty()) {
+            // If vertices remain but none is an entry point, there is a cycle
+            if (topology.cyclic) {
+                cycleLog.append("Entry points: ");
+                cycleLog.append(TextColor.RED + "None" + TextColor.RESET + "\n");
                 cycleLog.append(TextColor.YELLOW + "No entry points, graph has a cycle" + TextColor.RESET);
-                if (log) { System.out.println(cycleLog); }
-                return true;
-            }
-
-            // Remove vertices with no predecessors
-            for (Vertex v : noPredecessors) {
-                graph.removeVertex(v);
+                for (CycleFinder.Component component : findCycles()) {
+                    cycleLog.append("\n").append("Cycle: ").append(component);
+                }
+            } else {
+                cycleLog.append(TextColor.YELLOW + "Graph empty, no cycles detected" + TextColor.RESET + "\n");
             }
-
+            out.println(cycleLog);
         }
-        cycleLog.append(TextColor.YELLOW + "Graph empty, no cycles detected" + TextColor.RESET + "\n");
-        if (log) { System.out.println(cycleLog); }
-        return false;
+        return topology.cyclic;
+    }
+
+    // Strongly connected components holding a cycle, each with one concrete cycle, empty when the graph is acyclic
+    public List<CycleFinder.Component> findCycles(){
+        return CycleFinder.find(this);
     }
 
     public boolean hasNegativeDuration(boolean log){
         // Check if any vertex has a negative weight
-        if (log) { System.out.println(TextColor.YELLOW + "Checking for negative durations" + TextColor.RESET); }
-        for (Vertex v : vertices) {
-            if (v.duration < 0) {
-                if (log) { System.out.println(TextColor.RED + "Vertex " + v.id + " has a negative duration" + TextColor.RESET + "\n"); }
+        if (log) { out.println(TextColor.YELLOW + "Checking for negative durations" + TextColor.RESET); }
+        for (int v = 0; v < size; v++) {
+            if (durations[v] < 0) {
+                if (log) { out.println(TextColor.RED + "Vertex " + label(v) + " has a negative duration" + TextColor.RESET + "\n"); }
                 return true;
             }
         }
-        if (log) { System.out.println(TextColor.YELLOW + "No negative durations detected" + TextColor.RESET + "\n"); }
+        if (log) { out.println(TextColor.YELLOW + "No negative durations detected" + TextColor.RESET + "\n"); }
         return false;
     }
 
-    public void computeRanks(boolean log){
-        if (hasCycle(false)) {
-            if (log) { System.out.println(TextColor.RED + "Graph has a cycle, cannot compute ranks" + TextColor.RESET); }
-            return;
+    // Removes the edges implied by longer paths and returns how many were removed. Durations being non-negative,
+    // an implied edge never sets a time on its own, so ranks, times and critical path stay the same
+    public int reduceTransitively(boolean log){
+        if (topology().cyclic) {
+            throw new IllegalStateException("Graph has a cycle, cannot remove implied edges");
         }
-
-        Graph graph = new Graph(this);
-        int rank = 0;
-
-        while (!graph.vertices.isEmpty()) {
-            // Find vertices with no predecessors
-            List<Vertex> noPredecessors = new ArrayList<>();
-
-            for (Vertex v : graph.vertices) {
-                if (v.predecessors.isEmpty()) {
-                    noPredecessors.add(v);
+        if (hasNegativeDuration(false)) {
+            throw new IllegalStateException("Graph has a negative duration, removing implied edges could change its times");
+        }
+        long start = System.nanoTime();
+        int edges = predecessors.length;
+        boolean[] implied = new boolean[edges];
+        int removed = TransitiveReduction.find(this, implied);
+
+        if (removed > 0) {
+            int[] kept = new int[edges - removed];
+            int next = 0;
+            for (int v = 0; v < size; v++) {
+                int first = predecessorOffsets[v];
+                predecessorOffsets[v] = next;
+                for (int i = first; i < predecessorOffsets[v + 1]; i++) {
+                    if (!implied[i]) {
+                        kept[next++] = predecessors[i];
+                    }
                 }
             }
+            predecessorOffsets[size] = next;
+            predecessors = kept;
+            buildSuccessors();
+            topology = null;
+            updater = null;
+        }
+        metrics.record(GraphMetrics.Phase.REDUCTION, start, size, edges);
+        impliedEdges += removed;
 
-            // Remove vertices with no predecessors from copy and set the rank to original graph
-            for (Vertex v : noPredecessors) {
-                graph.removeVertex(v);
-                this.getVertex(v.id).setRank(rank);
-                if (log) { System.out.println("Removing vertex " + TextColor.CYAN + v.id + TextColor.RESET + " with rank " + TextColor.PURPLE + rank + TextColor.RESET); }
-            }
+        if (log) { out.println("Removed " + TextColor.RED + removed + TextColor.RESET + " implied edges out of " + TextColor.PURPLE + edges + TextColor.RESET + "\n"); }
+        return removed;
+    }
 
-            rank++;
+    public void computeRanks(boolean log){
+        if (hasCycle(false)) {
+            if (log) { out.println(TextColor.RED + "Graph has a cycle, cannot compute ranks" + TextColor.RESET); }
+            return;
+        }
+        long start = System.nanoTime();
+
+        // The rank of a vertex is its level in the topological order
+        TopologicalOrder topology = topology();
+        for (int rank = 0; rank < topology.levelCount; rank++) {
+            for (int i = topology.levelOffsets[rank]; i < topology.levelOffsets[rank + 1]; i++) {
+                int v = topology.order[i];
+                ranks[v] = rank;
+                if (log) { out.println("Removing vertex " + TextColor.CYAN + label(v) + TextColor.RESET + " with rank " + TextColor.PURPLE + rank + TextColor.RESET); }
+            }
         }
 
+        metrics.record(GraphMetrics.Phase.RANKS, start, size, 0);
     }
     public void computeEarliestTime(boolean log){
-        StringBuilder earlTLog = new StringBuilder();
-
         if (hasCycle(false)) {
-            if (log) { System.out.println(TextColor.RED + "Graph has a cycle, cannot compute earliest time" + TextColor.RESET); }
+            if (log) { out.println(TextColor.RED + "Graph has a cycle, cannot compute earliest time" + TextColor.RESET); }
             return;
         }
+        long start = System.nanoTime();
 
-        // Sort vertices by rank in ascending order
-        vertices.sort(Comparator.comparingInt(Vertex::getRank));
+        if (!log) {
+            int[] order = topology().order;
+            GraphArrays.earliest(IntArray.of(order), order.length, IntArray.of(predecessorOffsets), IntArray.of(predecessors),
+                    IntArray.of(durations), IntArray.of(earliestTimes));
+            metrics.record(GraphMetrics.Phase.EARLIEST, start, size, predecessors.length);
+            return;
+        }
 
-        for (Vertex v : vertices){
-            // If vertex has no predecessors (i.e. source), set earliest time to 0
-            if (v.predecessors.isEmpty()){
-                getVertex(v.id).earliestTime = 0;
+        StringBuilder earlTLog = new StringBuilder();
 
-                earlTLog.append("Vertex " + TextColor.CYAN).append(v.id).append(TextColor.RESET).append(" is the source, setting earliest time to ").append(TextColor.YELLOW).append(0).append(TextColor.RESET).append("\n");
+        // Visit vertices in topological order, i.e. by rank in ascending order
+        for (int v : topology().order){
+            // If vertex has no predecessors (i.e. source), set earliest time to 0
+            if (predecessorOffsets[v] == predecessorOffsets[v + 1]){
+                earliestTimes[v] = 0;
+                earlTLog.append("Vertex " + TextColor.CYAN).append(label(v)).append(TextColor.RESET).append(" is the source, setting earliest time to ").append(TextColor.YELLOW).append(0).append(TextColor.RESET).append("\n");
             } else {
                 // Else, set the earliest time as the max of the predecessors' earliest time + duration
                 int max = 0;
 
-                earlTLog.append("Vertex " + TextColor.CYAN).append(v.id).append(TextColor.RESET).append(", duration ").append(TextColor.RED).append(v.duration).append(TextColor.RESET).append(" predecessors : ");
+                earlTLog.append("Vertex " + TextColor.CYAN).append(label(v)).append(TextColor.RESET).append(", duration ").append(TextColor.RED).append(durations[v]).append(TextColor.RESET).append(" predecessors : ");
 
-                for (int predecessor : v.predecessors){
-                    earlTLog.append(TextColor.CYAN).append(predecessor).append(TextColor.RESET).append(" (").append(TextColor.YELLOW).append(getVertex(predecessor).earliestTime).append(TextColor.RESET).append("), ");
+                for (int i = predecessorOffsets[v]; i < predecessorOffsets[v + 1]; i++){
+                    int predecessor = predecessors[i];
+                    earlTLog.append(TextColor.CYAN).append(label(predecessor)).append(TextColor.RESET).append(" (").append(TextColor.YELLOW).append(earliestTimes[predecessor]).append(TextColor.RESET).append("), ");
 
-                    int time = getVertex(predecessor).earliestTime + getVertex(predecessor).duration;
+                    int time = earliestTimes[predecessor] + durations[predecessor];
                     if (time > max){
                         max = time;
                     }
                 }
-                getVertex(v.id).earliestTime = max;
+                earliestTimes[v] = max;
 
-                if (log) {
-                    // Remove trailing comma
-                    earlTLog.deleteCharAt(earlTLog.length() - 2);
-                    earlTLog.append("-> " + TextColor.YELLOW).append(v.earliestTime).append(TextColor.RESET).append("\n");
-                }
+                // Remove trailing comma
+                earlTLog.deleteCharAt(earlTLog.length() - 2);
+                earlTLog.append("-> " + TextColor.YELLOW).append(earliestTimes[v]).append(TextColor.RESET).append("\n");
             }
         }
-        // Sort back to ascending order of id
-        vertices.sort(Comparator.comparingInt(v -> v.id));
-        if (log) { System.out.println(earlTLog); }
+
+        metrics.record(GraphMetrics.Phase.EARLIEST, start, size, predecessors.length);
+        out.println(earlTLog);
     }
 
     public void computeLatestTime(boolean log){
-        StringBuilder lateTLog = new StringBuilder();
-
         if (hasCycle(false)) {
-            if (log) { System.out.println(TextColor.RED + "Graph has a cycle, cannot compute latest time" + TextColor.RESET); }
+            if (log) { out.println(TextColor.RED + "Graph has a cycle, cannot compute latest time" + TextColor.RESET); }
+            return;
+        }
+        long start = System.nanoTime();
+
+        if (!log) {
+            int[] order = topology().order;
+            GraphArrays.latest(IntArray.of(order), order.length, IntArray.of(successorOffsets), IntArray.of(successors),
+                    IntArray.of(durations), IntArray.of(earliestTimes), IntArray.of(latestTimes));
+            metrics.record(GraphMetrics.Phase.LATEST, start, size, successors.length);
             return;
         }
 
-        // Sort vertices by rank in descending order
-        vertices.sort(Comparator.comparingInt(Vertex::getRank).reversed());
+        StringBuilder lateTLog = new StringBuilder();
+
+        // Visit vertices by rank in descending order, vertices of the same rank by ascending id as in the log
+        int[] order = topology().descendingOrder();
+        int[] position = new int[size];
+        for (int i = 0; i < size; i++) {
+            position[order[i]] = i;
+        }
+        int[] visited = new int[size];
 
-        for (Vertex v : vertices){
+        for (int v : order){
             // If vertex has no successors (i.e. sink), set the latest time to the earliest time
-            if (getSuccessors(v).isEmpty()){
-                getVertex(v.id).latestTime = getVertex(v.id).earliestTime;
-                lateTLog.append("Vertex " + TextColor.CYAN).append(v.id).append(TextColor.RESET).append(" is the destination, setting earliest time to its earliest time ").append(TextColor.YELLOW).append(v.earliestTime).append(TextColor.RESET).append("\n");
+            if (successorOffsets[v] == successorOffsets[v + 1]){
+                latestTimes[v] = earliestTimes[v];
+                lateTLog.append("Vertex " + TextColor.CYAN).append(label(v)).append(TextColor.RESET).append(" is the destination, setting earliest time to its earliest time ").append(TextColor.YELLOW).append(earliestTimes[v]).append(TextColor.RESET).append("\n");
             } else {
                 // Else, set the latest time as the min of the successors' latest time - duration
                 int min = Integer.MAX_VALUE;
 
-                lateTLog.append("Vertex " + TextColor.CYAN).append(v.id).append(TextColor.RESET).append(", duration ").append(TextColor.RED).append(v.duration).append(TextColor.RESET).append(" successors : ");
+                lateTLog.append("Vertex " + TextColor.CYAN).append(label(v)).append(TextColor.RESET).append(", duration ").append(TextColor.RED).append(durations[v]).append(TextColor.RESET).append(" successors : ");
 
-                for (Vertex successor : getSuccessors(v)){
-                    lateTLog.append(TextColor.CYAN).append(successor.id).append(TextColor.RESET).append(" (").append(TextColor.GREEN).append(successor.latestTime).append(TextColor.RESET).append("), ");
+                // Successors are listed in visiting order, i.e. by descending rank
+                int count = 0;
+                for (int i = successorOffsets[v]; i < successorOffsets[v + 1]; i++){
+                    visited[count++] = position[successors[i]];
+                }
+                Arrays.sort(visited, 0, count);
+
+                for (int i = 0; i < count; i++){
+                    int successor = order[visited[i]];
+                    lateTLog.append(TextColor.CYAN).append(label(successor)).append(TextColor.RESET).append(" (").append(TextColor.GREEN).append(latestTimes[successor]).append(TextColor.RESET).append("), ");
 
-                    int time = getVertex(successor.id).latestTime;
+                    int time = latestTimes[successor];
                     if (time < min){
                         min = time;
                     }
                 }
-                getVertex(v.id).latestTime = min - getVertex(v.id).duration;
+                latestTimes[v] = min - durations[v];
 
-                if (log) {
-                    // Remove trailing comma
-                    lateTLog.deleteCharAt(lateTLog.length() - 2);
-                    lateTLog.append("-> " + TextColor.GREEN).append(v.latestTime).append(TextColor.RESET).append("\n");
-                }
+                // Remove trailing comma
+                lateTLog.deleteCharAt(lateTLog.length() - 2);
+                lateTLog.append("-> " + TextColor.GREEN).append(latestTimes[v]).append(TextColor.RESET).append("\n");
             }
         }
-        // Sort back to ascending order of id
-        vertices.sort(Comparator.comparingInt(v -> v.id));
-        if (log) { System.out.println(lateTLog); }
+
+        metrics.record(GraphMetrics.Phase.LATEST, start, size, successors.length);
+        out.println(lateTLog);
+    }
+
+    // Parallel variants of the two sweeps, without log, giving the same times as the sequential ones.
+    // They are recorded as the same phases, with the same counters
+    public void computeEarliestTimeParallel(){
+        if (hasCycle(false)) {
+            return;
+        }
+        long start = System.nanoTime();
+        ParallelSweep.earliest(this, topology(), ParallelSweep.MIN_PARALLEL_WIDTH);
+        metrics.record(GraphMetrics.Phase.EARLIEST, start, size, predecessors.length);
+    }
+
+    public void computeLatestTimeParallel(){
+        if (hasCycle(false)) {
+            return;
+        }
+        long start = System.nanoTime();
+        ParallelSweep.latest(this, topology(), ParallelSweep.MIN_PARALLEL_WIDTH);
+        metrics.record(GraphMetrics.Phase.LATEST, start, size, successors.length);
     }
 
     public void displayTimes() {
@@ -257,172 +394,732 @@ public class Graph {
         StringBuilder latest = new StringBuilder();
         StringBuilder total_float = new StringBuilder();
 
-        for (Vertex v : this.vertices){
-            duration.append(v.duration).append("\t");
-            task.append(v.id).append("\t");
-            earliest.append(v.earliestTime).append("\t");
-            latest.append(v.latestTime).append("\t");
-            total_float.append(v.latestTime - v.earliestTime).append("\t");
+        for (int v = 0; v < size; v++){
+            duration.append(durations[v]).append("\t");
+            task.append(label(v)).append("\t");
+            earliest.append(earliestTimes[v]).append("\t");
+            latest.append(latestTimes[v]).append("\t");
+            total_float.append(latestTimes[v] - earliestTimes[v]).append("\t");
         }
-        System.out.println("Task\t\t" + TextColor.CYAN + task + TextColor.RESET);
-        System.out.println("Duration\t" + TextColor.RED + duration + TextColor.RESET);
-        System.out.println("Earliest\t" + TextColor.YELLOW + earliest + TextColor.RESET);
-        System.out.println("Latest\t\t" + TextColor.GREEN + latest + TextColor.RESET);
-        System.out.println("Float\t\t" + TextColor.PURPLE + total_float + TextColor.RESET);
+        out.println("Task\t\t" + TextColor.CYAN + task + TextColor.RESET);
+        out.println("Duration\t" + TextColor.RED + duration + TextColor.RESET);
+        out.println("Earliest\t" + TextColor.YELLOW + earliest + TextColor.RESET);
+        out.println("Latest\t\t" + TextColor.GREEN + latest + TextColor.RESET);
+        out.println("Float\t\t" + TextColor.PURPLE + total_float + TextColor.RESET);
     }
 
     public void displayCriticalPath(){
         // Path with vertices with 0 total float
+        IntList criticalPath = new IntList();
+        boolean multiplePaths = followCriticalPath(criticalPath);
+
         StringBuilder path = new StringBuilder();
         path.append("Critical path : ");
+        for (int i = 0; i < criticalPath.size(); i++){
+            path.append(TextColor.CYAN).append(label(criticalPath.get(i))).append(TextColor.RESET);
+            if (i != criticalPath.size() - 1){
+                path.append(" -> ");
+            }
+        }
 
-        boolean multiplePaths = false;
-
-        // Start at vertex 0, add to path
-        Vertex current = getVertex(0);
-        path.append(TextColor.CYAN).append(current.id).append(TextColor.RESET).append(" -> ");
-
-        while (true){
-            List<Vertex> successors = getSuccessors(current);
-            if (successors.size() == 1 && successors.get(0).latestTime - successors.get(0).earliestTime == 0){
-                current = successors.get(0);
-                path.append(TextColor.CYAN).append(current.id).append(TextColor.RESET).append(" -> ");
-            } else if (successors.size() > 1) {
-                // If multiple successors with 0 total float, choose the one with the smallest rank (we want the longest path)
-
-                Vertex min = null;
-                for (Vertex v : successors){
-                    if (v.latestTime - v.earliestTime == 0){
-                        if (min == null){
-                            min = v;
-                        } else {
-                            if (v.getRank() < min.getRank()){
-                                min = v;
-                            }
-                            if (v.getRank() == min.getRank()){
-                                multiplePaths = true;
-                            }
-                        }
-                    }
-                }
-                if (min != null){
-                    current = min;
-                    path.append(TextColor.CYAN).append(current.id).append(TextColor.RESET).append(" -> ");
-                } else {
-                    break;
-                }
+        if (multiplePaths){
+            out.println(TextColor.YELLOW + "Multiple critical paths found, displaying one of them" + TextColor.RESET);
+        }
+        out.println(path);
+    }
 
-            } else {
-                break;
+    // Ids of the tasks of the critical path, alpha and omega are left out: they always start and end it
+    public long[] getCriticalPath(){
+        IntList criticalPath = new IntList();
+        followCriticalPath(criticalPath);
+        long[] path = new long[Math.max(0, criticalPath.size() - 2)];
+        for (int i = 0; i < path.length; i++){
+            path[i] = ids[criticalPath.get(i + 1)];
+        }
+        return path;
+    }
+
+    // Every critical path, counted up front and enumerated on demand
+    public CriticalPaths getCriticalPaths(){
+        if (topology().cyclic) {
+            throw new IllegalStateException("Graph has a cycle, no critical path");
+        }
+        return new CriticalPaths(this);
+    }
+
+    public void displayCriticalPaths(int limit){
+        CriticalPaths paths = getCriticalPaths();
+        out.println(TextColor.PURPLE + paths.count() + TextColor.RESET + " critical paths");
+
+        StringBuilder sb = new StringBuilder();
+        paths.stream(limit).forEach(path -> {
+            sb.setLength(0);
+            sb.append(TextColor.CYAN).append(label(alpha)).append(TextColor.RESET);
+            for (long id : path){
+                sb.append(" -> ").append(TextColor.CYAN).append(id).append(TextColor.RESET);
             }
+            sb.append(" -> ").append(TextColor.CYAN).append(label(omega)).append(TextColor.RESET);
+            out.println(sb);
+        });
+    }
+
+    // Scheduler for a limited number of workers, reusable for several worker counts
+    public ListScheduler getListScheduler(){
+        requireSchedule();
+        if (hasNegativeDuration(false)) {
+            throw new IllegalStateException("Graph has a negative duration, cannot schedule it");
         }
+        return new ListScheduler(this);
+    }
 
-        // Remove trailing arrow
-        path.delete(path.length() - 4, path.length());
-        if (multiplePaths){
-            System.out.println(TextColor.YELLOW + "Multiple critical paths found, displaying one of them" + TextColor.RESET);
+    public ListSchedule scheduleOn(int workers){
+        return getListScheduler().schedule(workers);
+    }
+
+    public ScenarioSet getScenarios(int count){
+        requireSchedule();
+        return new ScenarioSet(this, count);
+    }
+
+    public MonteCarlo getMonteCarlo(){
+        requireSchedule();
+        return new MonteCarlo(this);
+    }
+
+    public int getProjectDuration(){
+        return earliestTimes[omega];
+    }
+
+    private boolean followCriticalPath(IntList path){
+        long start = System.nanoTime();
+        boolean multiplePaths = GraphArrays.followCriticalPath(alpha, IntArray.of(successorOffsets), IntArray.of(successors),
+                IntArray.of(ranks), IntArray.of(earliestTimes), IntArray.of(latestTimes), path);
+        // Every successor of the vertices of the path was looked at
+        int edges = 0;
+        for (int i = 0; i < path.size(); i++) {
+            edges += successorOffsets[path.get(i) + 1] - successorOffsets[path.get(i)];
+        }
+        metrics.record(GraphMetrics.Phase.CRITICAL_PATH, start, path.size(), edges);
+        return multiplePaths;
+    }
+
+    public int getRemovedImpliedEdges(){
+        return impliedEdges;
+    }
+
+    public GraphMetrics getMetrics(){
+        return metrics;
+    }
+
+    public void setOutput(PrintStream out){
+        this.out = out;
+    }
+
+    public ScheduleChange updateDuration(long id, int duration){
+        int v = requireTask(id);
+        requireDuration(id, duration);
+        requireSchedule();
+
+        // The vertex's own latest time and its successors' earliest times depend on its duration
+        durations[v] = duration;
+        IntList forwardSeeds = new IntList();
+        for (int i = successorOffsets[v]; i < successorOffsets[v + 1]; i++) {
+            forwardSeeds.add(successors[i]);
         }
-        System.out.println(path);
+        IntList backwardSeeds = new IntList();
+        backwardSeeds.add(v);
+        return updater().propagate(forwardSeeds, backwardSeeds, new IntList());
     }
 
-    private List<Vertex> getSuccessors(Vertex vertex){
-        List<Vertex> successors = new ArrayList<>();
+    // Edge edits patch the arrays in place of a rebuild: only the lists of the vertices at both ends change, along with
+    // alpha's and omega's when a vertex gains or loses its last predecessor or successor. Ranks, then times, are only
+    // recomputed in the cone the edit reaches, and the topological order is rebuilt from the ranks when next needed
+    public ScheduleChange addPredecessor(long id, long predecessorId){
+        int v = requireTask(id);
+        int predecessor = requireTask(predecessorId);
+        requireSchedule();
 
-        for (Vertex v : vertices) {
-            if (v.predecessors.contains(vertex.id)) {
-                successors.add(v);
+        if (hasPredecessor(v, predecessor)) {
+            return updater().propagate(new IntList(), new IntList(), new IntList());
+        }
+        if (v == predecessor || updater().reaches(v, predecessor)) {
+            throw new IllegalArgumentException("Adding " + predecessorId + " as predecessor of " + id + " would create a cycle");
+        }
+
+        EdgePatch predecessorPatch = new EdgePatch();
+        EdgePatch successorPatch = new EdgePatch();
+        // The new predecessor replaces alpha, the new successor replaces omega
+        if (onlyNeighbour(predecessorOffsets, predecessors, v, alpha)) {
+            predecessorPatch.set(v, predecessor);
+            successorPatch.set(alpha, without(successorOffsets, successors, alpha, v));
+        } else {
+            predecessorPatch.set(v, appended(predecessorOffsets, predecessors, v, predecessor));
+        }
+        if (onlyNeighbour(successorOffsets, successors, predecessor, omega)) {
+            successorPatch.set(predecessor, v);
+            predecessorPatch.set(omega, without(predecessorOffsets, predecessors, omega, predecessor));
+        } else {
+            successorPatch.set(predecessor, inserted(successorOffsets, successors, predecessor, v));
+        }
+        return patch(predecessorPatch, successorPatch, new IntList());
+    }
+
+    public ScheduleChange removePredecessor(long id, long predecessorId){
+        int v = requireTask(id);
+        int predecessor = requireTask(predecessorId);
+        requireSchedule();
+
+        if (!hasPredecessor(v, predecessor)) {
+            throw new IllegalArgumentException("Vertex " + predecessorId + " is not a predecessor of " + id);
+        }
+
+        EdgePatch predecessorPatch = new EdgePatch();
+        EdgePatch successorPatch = new EdgePatch();
+        // A vertex left without predecessor hangs from alpha again, one left without successor leads to omega
+        if (predecessorOffsets[v + 1] - predecessorOffsets[v] == 1) {
+            predecessorPatch.set(v, alpha);
+            successorPatch.set(alpha, inserted(successorOffsets, successors, alpha, v));
+        } else {
+            predecessorPatch.set(v, without(predecessorOffsets, predecessors, v, predecessor));
+        }
+        if (successorOffsets[predecessor + 1] - successorOffsets[predecessor] == 1) {
+            successorPatch.set(predecessor, omega);
+            predecessorPatch.set(omega, inserted(predecessorOffsets, predecessors, omega, predecessor));
+        } else {
+            successorPatch.set(predecessor, without(successorOffsets, successors, predecessor, v));
+        }
+        return patch(predecessorPatch, successorPatch, new IntList());
+    }
+
+    // The task takes the slot before omega, so no other slot moves: slots are sorted by id up to the first added task
+    public ScheduleChange addTask(long id, int duration, long... predecessorIds){
+        if (slotOfId.get(id) >= 0) {
+            throw new IllegalArgumentException("Vertex " + id + " already exists");
+        }
+        requireDuration(id, duration);
+        requireSchedule();
+        IntList taskPredecessors = new IntList();
+        for (long predecessorId : predecessorIds) {
+            int predecessor = requireTask(predecessorId);
+            // Skip a predecessor listed twice, as in a table
+            if (!taskPredecessors.contains(predecessor)) {
+                taskPredecessors.add(predecessor);
             }
         }
 
-        return successors;
+        // Omega moves one slot up, the only lists holding it are those of its predecessors
+        int task = omega;
+        int oldOmega = omega;
+        size++;
+        omega = size - 1;
+        for (int i = predecessorOffsets[oldOmega]; i < predecessorOffsets[oldOmega + 1]; i++) {
+            successors[successorOffsets[predecessors[i]]] = omega;
+        }
+        ids = Arrays.copyOf(ids, size);
+        durations = Arrays.copyOf(durations, size);
+        ranks = Arrays.copyOf(ranks, size);
+        earliestTimes = Arrays.copyOf(earliestTimes, size);
+        latestTimes = Arrays.copyOf(latestTimes, size);
+        ids[task] = id;
+        ids[omega] = size - 1;
+        durations[task] = duration;
+        durations[omega] = 0;
+        ranks[omega] = ranks[oldOmega];
+        earliestTimes[omega] = earliestTimes[oldOmega];
+        latestTimes[omega] = latestTimes[oldOmega];
+        earliestTimes[task] = 0;
+        latestTimes[task] = 0;
+        // The new slot starts with empty lists, right where omega's begin
+        predecessorOffsets = Arrays.copyOf(predecessorOffsets, size + 1);
+        predecessorOffsets[omega + 1] = predecessorOffsets[omega];
+        predecessorOffsets[omega] = predecessorOffsets[task];
+        successorOffsets = Arrays.copyOf(successorOffsets, size + 1);
+        successorOffsets[omega + 1] = successorOffsets[omega];
+        successorOffsets[omega] = successorOffsets[task];
+        slotOfId.putIfAbsent(id, task);
+        numberedEnds = slotOfId.get(ids[alpha]) < 0 && slotOfId.get(ids[omega]) < 0;
+        updater().ensureCapacity(size);
+
+        EdgePatch predecessorPatch = new EdgePatch();
+        EdgePatch successorPatch = new EdgePatch();
+        int rank = 1;
+        if (taskPredecessors.isEmpty()) {
+            predecessorPatch.set(task, alpha);
+            successorPatch.set(alpha, inserted(successorOffsets, successors, alpha, task));
+        } else {
+            predecessorPatch.set(task, taskPredecessors.toArray());
+        }
+        for (int i = 0; i < taskPredecessors.size(); i++) {
+            int predecessor = taskPredecessors.get(i);
+            rank = Math.max(rank, ranks[predecessor] + 1);
+            if (onlyNeighbour(successorOffsets, successors, predecessor, omega)) {
+                successorPatch.set(predecessor, task);
+            } else {
+                successorPatch.set(predecessor, inserted(successorOffsets, successors, predecessor, task));
+            }
+        }
+        // Predecessors of the task that led to omega no longer do. The task has no successor yet,
+        // it is the last predecessor of omega by slot
+        IntList omegaPredecessors = new IntList();
+        for (int i = predecessorOffsets[omega]; i < predecessorOffsets[omega + 1]; i++) {
+            int predecessor = predecessors[i];
+            if (!taskPredecessors.contains(predecessor) || !onlyNeighbour(successorOffsets, successors, predecessor, omega)) {
+                omegaPredecessors.add(predecessor);
+            }
+        }
+        omegaPredecessors.add(task);
+        predecessorPatch.set(omega, omegaPredecessors.toArray());
+        successorPatch.set(task, omega);
+        ranks[task] = rank;
+
+        IntList addedSlots = new IntList();
+        addedSlots.add(task);
+        return patch(predecessorPatch, successorPatch, addedSlots);
     }
 
-    private Vertex getVertex(int id){
-        Vertex vertex = null;
-        for (Vertex v : vertices) {
-            if (v.id == id) {
-                vertex = v;
-                break;
+    // New lists of some vertices, applied to a copy of the edge array in one pass
+    private static final class EdgePatch {
+        final IntList vertices = new IntList();
+        final List<int[]> lists = new ArrayList<>();
+
+        void set(int v, int... list) {
+            vertices.add(v);
+            lists.add(list);
+        }
+
+        // Copy of neighbours with the new lists, the offsets are shifted in place
+        int[] apply(int[] offsets, int[] neighbours, int size) {
+            // Patched vertices by slot, each packed with the index of its list
+            long[] order = new long[vertices.size()];
+            int[] deltas = new int[order.length];
+            int delta = 0;
+            for (int k = 0; k < order.length; k++) {
+                int v = vertices.get(k);
+                order[k] = ((long) v << 32) | k;
+                deltas[k] = lists.get(k).length - (offsets[v + 1] - offsets[v]);
+                delta += deltas[k];
             }
+            Arrays.sort(order);
+
+            int[] patched = new int[neighbours.length + delta];
+            int from = 0;
+            int to = 0;
+            for (long packed : order) {
+                int v = (int) (packed >>> 32);
+                int[] list = lists.get((int) packed);
+                System.arraycopy(neighbours, from, patched, to, offsets[v] - from);
+                to += offsets[v] - from;
+                System.arraycopy(list, 0, patched, to, list.length);
+                to += list.length;
+                from = offsets[v + 1];
+            }
+            System.arraycopy(neighbours, from, patched, to, neighbours.length - from);
+
+            // Every offset after a patched vertex moves by the length differences of the lists before it
+            int shift = 0;
+            int next = 0;
+            for (int w = (int) (order[0] >>> 32) + 1; w <= size; w++) {
+                while (next < order.length && (int) (order[next] >>> 32) < w) {
+                    shift += deltas[(int) order[next]];
+                    next++;
+                }
+                offsets[w] += shift;
+            }
+            return patched;
         }
-        return vertex;
     }
 
-    private void removeVertex(Vertex vertex){
-        // Remove vertex from predecessors
-        for (Vertex v : vertices) {
-            v.predecessors.remove((Integer) vertex.id);
+    private ScheduleChange patch(EdgePatch predecessorPatch, EdgePatch successorPatch, IntList addedSlots){
+        IntList forwardSeeds = new IntList();
+        IntList backwardSeeds = new IntList();
+        for (int k = 0; k < predecessorPatch.vertices.size(); k++) {
+            forwardSeeds.add(predecessorPatch.vertices.get(k));
+        }
+        for (int k = 0; k < successorPatch.vertices.size(); k++) {
+            backwardSeeds.add(successorPatch.vertices.get(k));
         }
-        // Remove vertex
-        vertices.remove(vertex);
+        predecessors = predecessorPatch.apply(predecessorOffsets, predecessors, size);
+        successors = successorPatch.apply(successorOffsets, successors, size);
+
+        updater().updateRanks(forwardSeeds);
+        topology = null;
+        rankedOnly = true;
+        return updater().propagate(forwardSeeds, backwardSeeds, addedSlots);
     }
 
-    public void displayTriplets(){
-        StringBuilder sb = new StringBuilder();
-        sb.append(TextColor.PURPLE).append(vertices.size()).append(TextColor.RESET).append(" vertices").append("\n");
+    private boolean onlyNeighbour(int[] offsets, int[] neighbours, int v, int neighbour){
+        return offsets[v + 1] - offsets[v] == 1 && neighbours[offsets[v]] == neighbour;
+    }
 
-        int edges = 0;
-        for (Vertex v : vertices) {
-            edges += v.predecessors.size();
-        }
-        sb.append(TextColor.PURPLE).append(edges).append(TextColor.RESET).append(" edges").append("\n");
-
-        for (Vertex v : vertices) {
-            if (!getSuccessors(v).isEmpty()) {
-                for (Vertex successor : getSuccessors(v)) {
-                    // id -> successor = duration
-                    sb.append(TextColor.CYAN).append(v.id).append(TextColor.RESET).append(" -> ")
-                            .append(TextColor.GREEN).append(successor.id).append(TextColor.RESET).append(" = ")
-                            .append(TextColor.YELLOW).append(v.duration).append(TextColor.RESET).append("\n");
+    private static int[] appended(int[] offsets, int[] neighbours, int v, int neighbour){
+        int[] list = Arrays.copyOfRange(neighbours, offsets[v], offsets[v + 1] + 1);
+        list[list.length - 1] = neighbour;
+        return list;
+    }
+
+    // Successor lists and omega's predecessors are sorted by slot, the new one goes to its place
+    private static int[] inserted(int[] offsets, int[] neighbours, int v, int neighbour){
+        int start = offsets[v];
+        int count = offsets[v + 1] - start;
+        int position = start;
+        while (position < start + count && neighbours[position] < neighbour) {
+            position++;
+        }
+        int[] list = new int[count + 1];
+        System.arraycopy(neighbours, start, list, 0, position - start);
+        list[position - start] = neighbour;
+        System.arraycopy(neighbours, position, list, position - start + 1, start + count - position);
+        return list;
+    }
+
+    private static int[] without(int[] offsets, int[] neighbours, int v, int neighbour){
+        int[] list = new int[offsets[v + 1] - offsets[v] - 1];
+        int next = 0;
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            if (neighbours[i] != neighbour) {
+                list[next++] = neighbours[i];
+            }
+        }
+        return list;
+    }
+
+    // Brings the graph to a new version of its table: when only durations changed they are updated in place,
+    // otherwise the arrays are rebuilt once from the table. Either way only the times the changes reach are recomputed
+    public ScheduleChange apply(TableDiff diff){
+        requireSchedule();
+        if (diff.isStructural()) {
+            return rebuild(diff.table);
+        }
+
+        IntList forwardSeeds = new IntList();
+        IntList backwardSeeds = new IntList();
+        for (int i = 0; i < diff.changedDurations.size(); i++) {
+            int v = requireTask(diff.changedDurations.get(i));
+            durations[v] = diff.newDurations.get(i);
+            for (int j = successorOffsets[v]; j < successorOffsets[v + 1]; j++) {
+                forwardSeeds.add(successors[j]);
+            }
+            backwardSeeds.add(v);
+        }
+        return updater().propagate(forwardSeeds, backwardSeeds, new IntList());
+    }
+
+    private ScheduleChange rebuild(ConstraintTable table){
+        // The order is kept to restore the graph if the table cannot be scheduled
+        topology();
+        Graph old = new Graph(this);
+        TopologicalOrder oldTopology = topology;
+        ScheduleUpdater oldUpdater = updater;
+        try {
+            buildStorage(table);
+            computeRanks(false);
+            if (topology().cyclic) {
+                throw new IllegalStateException("Graph has a cycle, cannot update the schedule");
+            }
+        } catch (RuntimeException e) {
+            // A table that cannot be scheduled leaves the graph as it was
+            restore(old, oldTopology, oldUpdater);
+            throw e;
+        }
+
+        // Carry the times over and seed the propagation with every vertex whose duration or edges changed
+        IntList forwardSeeds = new IntList();
+        IntList backwardSeeds = new IntList();
+        IntList addedSlots = new IntList();
+        for (int v = 0; v < size; v++) {
+            int previous = v == alpha ? old.alpha : v == omega ? old.omega : old.slotOfId.get(ids[v]);
+            if (previous < 0) {
+                addedSlots.add(v);
+                forwardSeeds.add(v);
+                backwardSeeds.add(v);
+                continue;
+            }
+            earliestTimes[v] = old.earliestTimes[previous];
+            latestTimes[v] = old.latestTimes[previous];
+            if (durations[v] != old.durations[previous]) {
+                for (int i = successorOffsets[v]; i < successorOffsets[v + 1]; i++) {
+                    forwardSeeds.add(successors[i]);
                 }
+                backwardSeeds.add(v);
+            }
+            if (!sameNeighbours(predecessorOffsets, predecessors, v, old, old.predecessorOffsets, old.predecessors, previous)) {
+                forwardSeeds.add(v);
+            }
+            if (!sameNeighbours(successorOffsets, successors, v, old, old.successorOffsets, old.successors, previous)) {
+                backwardSeeds.add(v);
             }
         }
-        System.out.println(sb);
+        return updater().propagate(forwardSeeds, backwardSeeds, addedSlots);
     }
 
-    public void displayValueMatrix(){
-        System.out.println("Value matrix");
+    Graph(String filename, int size, int edges) {
+        // Empty arrays of the given dimensions, filled in by GraphSnapshot
+        this.filename = filename;
+        this.size = size;
+        ids = new long[size];
+        durations = new int[size];
+        predecessorOffsets = new int[size + 1];
+        predecessors = new int[edges];
+        successorOffsets = new int[size + 1];
+        successors = new int[edges];
+        ranks = new int[size];
+        earliestTimes = new int[size];
+        latestTimes = new int[size];
+    }
 
-        String[][] valueMatrix = new String[vertices.size()][vertices.size()];
+    private Graph(Graph graph) {
+        // Shallow copy of the arrays, used to compare a graph with its state before a rebuild
+        filename = graph.filename;
+        size = graph.size;
+        ids = graph.ids;
+        durations = graph.durations;
+        predecessorOffsets = graph.predecessorOffsets;
+        predecessors = graph.predecessors;
+        successorOffsets = graph.successorOffsets;
+        successors = graph.successors;
+        alpha = graph.alpha;
+        omega = graph.omega;
+        slotOfId = graph.slotOfId;
+        numberedEnds = graph.numberedEnds;
+        ranks = graph.ranks;
+        earliestTimes = graph.earliestTimes;
+        latestTimes = graph.latestTimes;
+    }
+
+    private void restore(Graph old, TopologicalOrder oldTopology, ScheduleUpdater oldUpdater) {
+        size = old.size;
+        ids = old.ids;
+        durations = old.durations;
+        predecessorOffsets = old.predecessorOffsets;
+        predecessors = old.predecessors;
+        successorOffsets = old.successorOffsets;
+        successors = old.successors;
+        alpha = old.alpha;
+        omega = old.omega;
+        slotOfId = old.slotOfId;
+        numberedEnds = old.numberedEnds;
+        ranks = old.ranks;
+        earliestTimes = old.earliestTimes;
+        latestTimes = old.latestTimes;
+        topology = oldTopology;
+        updater = oldUpdater;
+    }
 
-        // Fill matrix with EMPTY_SYMBOL
-        for (int i = 0; i < vertices.size(); i++) {
-            for (int j = 0; j < vertices.size(); j++) {
-                valueMatrix[i][j] = EMPTY_SYMBOL;
+    private boolean sameNeighbours(int[] offsets, int[] neighbours, int v, Graph old, int[] oldOffsets, int[] oldNeighbours, int previous){
+        int start = offsets[v];
+        int oldStart = oldOffsets[previous];
+        if (offsets[v + 1] - start != oldOffsets[previous + 1] - oldStart) {
+            return false;
+        }
+        for (int i = 0; i < offsets[v + 1] - start; i++) {
+            // Omega's id changes with the number of tasks, it is compared by slot like alpha
+            int neighbour = neighbours[start + i];
+            int oldNeighbour = oldNeighbours[oldStart + i];
+            boolean same = neighbour == alpha || neighbour == omega
+                    ? (neighbour == alpha ? oldNeighbour == old.alpha : oldNeighbour == old.omega)
+                    : oldNeighbour != old.alpha && oldNeighbour != old.omega && ids[neighbour] == old.ids[oldNeighbour];
+            if (!same) {
+                return false;
             }
         }
+        return true;
+    }
 
-        // Fill matrix with values
-        for (Vertex v : vertices) {
-            for (Vertex successor : getSuccessors(v)) {
-                valueMatrix[v.id][successor.id] = TextColor.YELLOW + v.duration + TextColor.RESET;
+    private boolean hasPredecessor(int v, int predecessor){
+        for (int i = predecessorOffsets[v]; i < predecessorOffsets[v + 1]; i++) {
+            if (predecessors[i] == predecessor) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private int requireTask(long id){
+        int v = slotOfId.get(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        return v;
+    }
+
+    private void requireSchedule(){
+        if (hasCycle(false)) {
+            throw new IllegalStateException("Graph has a cycle, cannot update the schedule");
+        }
+    }
+
+    // Same rule as the table validator: the times of a negative duration are meaningless
+    private static void requireDuration(long id, int duration){
+        if (duration < 0) {
+            throw new IllegalArgumentException("Task " + id + " cannot have a negative duration (" + duration + ")");
+        }
+    }
+
+    private ScheduleUpdater updater(){
+        if (updater == null) {
+            updater = new ScheduleUpdater(this);
+        }
+        return updater;
+    }
+
+    // Vertex of a task, null when no task has this id
+    public Vertex getVertex(long id){
+        int slot = slotOf(id);
+        return slot < 0 ? null : new Vertex(this, slot);
+    }
+
+    public Vertex getAlpha(){
+        return new Vertex(this, alpha);
+    }
+
+    public Vertex getOmega(){
+        return new Vertex(this, omega);
+    }
+
+    void indexSlots(){
+        // Task id to slot index, rebuilt with the storage whenever vertices are added or removed
+        slotOfId = GraphArrays.indexSlots(LongArray.of(ids), size);
+        numberedEnds = slotOfId.get(ids[alpha]) < 0 && slotOfId.get(ids[omega]) < 0;
+    }
+
+    // Slot of a task, -1 when no task has that id: alpha and omega are never found by id
+    int slotOf(long id){
+        return slotOfId.get(id);
+    }
+
+    boolean isTask(int slot){
+        return slot != alpha && slot != omega;
+    }
+
+    // Displayed name of a slot: the task id, while alpha and omega show as 0 and the number of tasks + 1
+    // unless a task has one of these ids, then they show as alpha and omega
+    String label(int slot){
+        if (!isTask(slot) && !numberedEnds) {
+            return slot == alpha ? "alpha" : "omega";
+        }
+        return Long.toString(ids[slot]);
+    }
+
+    void restoreTopology(TopologicalOrder topology){
+        this.topology = topology;
+        rankedOnly = false;
+    }
+
+    TopologicalOrder topology(){
+        // Computed once, then shared by the cycle check, the ranks and both time sweeps
+        if (topology == null) {
+            topology = rankedOnly ? new TopologicalOrder(ranks, size) : new TopologicalOrder(this);
+            rankedOnly = false;
+        }
+        return topology;
+    }
+
+    public void displayTriplets(){
+        // Streamed in blocks, memory does not grow with the number of edges
+        StringBuilder sb = new StringBuilder();
+        sb.append(TextColor.PURPLE).append(size).append(TextColor.RESET).append(" vertices").append("\n");
+
+        sb.append(TextColor.PURPLE).append(predecessors.length).append(TextColor.RESET).append(" edges").append("\n");
+
+        for (int v = 0; v < size; v++) {
+            for (int i = successorOffsets[v]; i < successorOffsets[v + 1]; i++) {
+                // id -> successor = duration
+                sb.append(TextColor.CYAN).append(label(v)).append(TextColor.RESET).append(" -> ")
+                        .append(TextColor.GREEN).append(label(successors[i])).append(TextColor.RESET).append(" = ")
+                        .append(TextColor.YELLOW).append(durations[v]).append(TextColor.RESET).append("\n");
+            }
+            if (sb.length() >= RENDER_BLOCK) {
+                out.print(sb);
+                sb.setLength(0);
+            }
+        }
+        out.println(sb);
+    }
+
+    public void displayValueMatrix(){
+        displayValueMatrix(0, size, 0, size);
+    }
+
+    // Displays rows [firstRow, lastRow) and columns [firstColumn, lastColumn) of the value matrix, in id order.
+    // Rows are rendered one at a time from the successor arrays, the matrix itself is never allocated.
+    public void displayValueMatrix(int firstRow, int lastRow, int firstColumn, int lastColumn){
+        checkRange(firstRow, lastRow);
+        checkRange(firstColumn, lastColumn);
+        out.println("Value matrix");
 
         // Print column headers
-        System.out.print(TextColor.GREEN + "\t");
-        for (int i = 0; i < vertices.size(); i++) {
-            System.out.print(i + "\t");
+        StringBuilder sb = new StringBuilder();
+        sb.append(TextColor.GREEN + "\t");
+        for (int j = firstColumn; j < lastColumn; j++) {
+            sb.append(label(j)).append("\t");
+        }
+        sb.append(TextColor.RESET);
+        out.println(sb);
+
+        // Print row headers and values, successors are sorted so each row is a merge with the column range
+        for (int i = firstRow; i < lastRow; i++){
+            sb.setLength(0);
+            sb.append(TextColor.CYAN).append(label(i)).append(TextColor.RESET).append("\t");
+
+            int next = firstSuccessorFrom(i, firstColumn);
+            int end = successorOffsets[i + 1];
+            for (int j = firstColumn; j < lastColumn; j++){
+                if (next < end && successors[next] == j) {
+                    sb.append(TextColor.YELLOW).append(durations[i]).append(TextColor.RESET).append("\t");
+                    next++;
+                } else {
+                    sb.append(EMPTY_SYMBOL).append("\t");
+                }
+            }
+            out.println(sb);
         }
-        System.out.println(TextColor.RESET);
+        out.println();
+    }
+
+    public void displayValueList(){
+        displayValueList(0, size, 0, size);
+    }
 
-        // Print row headers and values
-        for (int i = 0; i < vertices.size(); i++){
-            System.out.print(TextColor.CYAN + i + TextColor.RESET + "\t");
-            for (int j = 0; j < vertices.size(); j++){
-                System.out.print(valueMatrix[i][j] + "\t");
+    // Sparse form of the value matrix: one "row column value" line per non-empty cell of the given ranges
+    public void displayValueList(int firstRow, int lastRow, int firstColumn, int lastColumn){
+        checkRange(firstRow, lastRow);
+        checkRange(firstColumn, lastColumn);
+        out.println("Value matrix (sparse)");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = firstRow; i < lastRow; i++){
+            int end = successorOffsets[i + 1];
+            for (int next = firstSuccessorFrom(i, firstColumn); next < end && successors[next] < lastColumn; next++){
+                sb.append(TextColor.CYAN).append(label(i)).append(TextColor.RESET).append("\t")
+                        .append(TextColor.GREEN).append(label(successors[next])).append(TextColor.RESET).append("\t")
+                        .append(TextColor.YELLOW).append(durations[i]).append(TextColor.RESET).append("\n");
             }
-            System.out.println();
+            if (sb.length() >= RENDER_BLOCK) {
+                out.print(sb);
+                sb.setLength(0);
+            }
+        }
+        out.println(sb);
+    }
+
+    private int firstSuccessorFrom(int v, int column){
+        // Index of the first successor of v at or after the given column
+        int index = Arrays.binarySearch(successors, successorOffsets[v], successorOffsets[v + 1], column);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void checkRange(int first, int last){
+        if (first < 0 || last > size || first > last) {
+            throw new IllegalArgumentException("Invalid range [" + first + ", " + last + ") for " + size + " vertices");
         }
-        System.out.println();
     }
 
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Vertex v : vertices) {
-            sb.append(v.toString()).append("\n");
+        for (int v = 0; v < size; v++) {
+            sb.append(new Vertex(this, v)).append("\n");
         }
         return sb.toString();
     }
@@ -0,0 +1,261 @@
+import java.util.Arrays;
+
+// Algorithms shared by Graph and MappedGraph, written once against IntArray and LongArray: the build of the
+// compressed sparse row arrays from the rows of a table, Kahn's pass, both sweeps and the critical path walk.
+// Graph hands views of its heap arrays, MappedGraph its mapped sections. Slots are the same for both:
+// alpha is slot 0 and omega the last one. The logged sweeps of Graph stay in Graph, only their log differs.
+
+public class GraphArrays {
+
+    // Slot of each task id, alpha and omega are not in it
+    static LongIntMap indexSlots(LongArray ids, int size) {
+        LongIntMap slotOfId = new LongIntMap(size);
+        for (int slot = 1; slot < size - 1; slot++) {
+            if (slotOfId.putIfAbsent(ids.get(slot), slot) >= 0) {
+                throw new IllegalArgumentException("Vertex " + ids.get(slot) + " is defined twice");
+            }
+        }
+        return slotOfId;
+    }
+
+    // Predecessor arrays of a table whose rows already have their slots. A task without predecessors follows alpha,
+    // a predecessor listed twice on a line is kept once, vertices that are no one's predecessor precede omega.
+    // The predecessors are counted before they are written, so the edge arrays are allocated at their exact length.
+    static final class PredecessorBuilder {
+        private final String name;
+        private final int size;
+        private final int[] slotOfRow;
+        // First raw predecessor of each row, those of the last row end at rawCount
+        private final IntList rowStarts;
+        private final int rawCount;
+        // Slot of each raw predecessor, -1 when it was already listed on its line: ids are looked up once
+        private final IntArray rawSlots;
+        private final IntArray predecessorOffsets;
+        private final boolean[] hasSuccessor;
+
+        PredecessorBuilder(String name, int size, int[] slotOfRow, IntList rowStarts, int rawCount, IntArray rawSlots, IntArray predecessorOffsets) {
+            this.name = name;
+            this.size = size;
+            this.slotOfRow = slotOfRow;
+            this.rowStarts = rowStarts;
+            this.rawCount = rawCount;
+            this.rawSlots = rawSlots;
+            this.predecessorOffsets = predecessorOffsets;
+            this.hasSuccessor = new boolean[size];
+        }
+
+        // Fills predecessorOffsets and returns the number of edges
+        int count(LongArray rawPredecessors, LongArray ids, LongIntMap slotOfId) {
+            int alpha = 0;
+            int omega = size - 1;
+            int[] lastSuccessor = new int[size];
+            Arrays.fill(lastSuccessor, -1);
+            // The count of each slot goes to predecessorOffsets[slot + 1] first, alpha has none
+            predecessorOffsets.set(0, 0);
+            predecessorOffsets.set(alpha + 1, 0);
+            for (int row = 0; row < slotOfRow.length; row++) {
+                int slot = slotOfRow[row];
+                int start = rowStarts.get(row);
+                int end = end(row);
+                int count = 0;
+                if (start == end) {
+                    count = 1;
+                    hasSuccessor[alpha] = true;
+                }
+                for (int i = start; i < end; i++) {
+                    int predecessor = slotOfId.get(rawPredecessors.get(i));
+                    if (predecessor < 0) {
+                        throw new IllegalArgumentException("Vertex " + ids.get(slot) + " has unknown predecessor " + rawPredecessors.get(i));
+                    }
+                    if (lastSuccessor[predecessor] == slot) {
+                        rawSlots.set(i, -1);
+                        continue;
+                    }
+                    lastSuccessor[predecessor] = slot;
+                    hasSuccessor[predecessor] = true;
+                    rawSlots.set(i, predecessor);
+                    count++;
+                }
+                predecessorOffsets.set(slot + 1, count);
+            }
+            int omegaCount = 0;
+            for (int slot = 0; slot < omega; slot++) {
+                if (!hasSuccessor[slot]) {
+                    omegaCount++;
+                }
+            }
+            predecessorOffsets.set(omega + 1, omegaCount);
+
+            long total = 0;
+            for (int slot = 0; slot < size; slot++) {
+                total += predecessorOffsets.get(slot + 1);
+                if (total > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Too many edges in " + name);
+                }
+                predecessorOffsets.set(slot + 1, (int) total);
+            }
+            return (int) total;
+        }
+
+        // Writes the predecessors counted by count, each slot in its own range
+        void fill(IntArray predecessors) {
+            int alpha = 0;
+            int omega = size - 1;
+            for (int row = 0; row < slotOfRow.length; row++) {
+                int start = rowStarts.get(row);
+                int end = end(row);
+                int next = predecessorOffsets.get(slotOfRow[row]);
+                if (start == end) {
+                    predecessors.set(next++, alpha);
+                }
+                for (int i = start; i < end; i++) {
+                    int predecessor = rawSlots.get(i);
+                    if (predecessor >= 0) {
+                        predecessors.set(next++, predecessor);
+                    }
+                }
+            }
+            int next = predecessorOffsets.get(omega);
+            for (int slot = 0; slot < omega; slot++) {
+                if (!hasSuccessor[slot]) {
+                    predecessors.set(next++, slot);
+                }
+            }
+        }
+
+        private int end(int row) {
+            return row + 1 < slotOfRow.length ? rowStarts.get(row + 1) : rawCount;
+        }
+    }
+
+    // Reverses the predecessor arrays, successors end up sorted by slot
+    static void reverse(int size, int edges, IntArray predecessorOffsets, IntArray predecessors, IntArray successorOffsets, IntArray successors) {
+        int[] next = new int[size];
+        for (int i = 0; i < edges; i++) {
+            next[predecessors.get(i)]++;
+        }
+        int offset = 0;
+        for (int slot = 0; slot < size; slot++) {
+            successorOffsets.set(slot, offset);
+            int count = next[slot];
+            next[slot] = offset;
+            offset += count;
+        }
+        successorOffsets.set(size, offset);
+        for (int v = 0; v < size; v++) {
+            for (int i = predecessorOffsets.get(v); i < predecessorOffsets.get(v + 1); i++) {
+                successors.set(next[predecessors.get(i)]++, v);
+            }
+        }
+    }
+
+    // Kahn's algorithm: vertices are written to order as they are released and the number released is returned.
+    // The level of a released vertex is its rank, vertices on or behind a cycle are never released and get level -1
+    static int release(int size, IntArray predecessorOffsets, IntArray successorOffsets, IntArray successors, IntArray levels, IntArray order) {
+        int[] remaining = new int[size];
+        int tail = 0;
+        for (int v = 0; v < size; v++) {
+            remaining[v] = predecessorOffsets.get(v + 1) - predecessorOffsets.get(v);
+            if (remaining[v] == 0) {
+                order.set(tail++, v);
+                levels.set(v, 0);
+            } else {
+                levels.set(v, -1);
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int v = order.get(head);
+            int level = levels.get(v) + 1;
+            for (int i = successorOffsets.get(v); i < successorOffsets.get(v + 1); i++) {
+                int successor = successors.get(i);
+                if (level > levels.get(successor)) {
+                    levels.set(successor, level);
+                }
+                if (--remaining[successor] == 0) {
+                    order.set(tail++, successor);
+                }
+            }
+        }
+        if (tail < size) {
+            for (int v = 0; v < size; v++) {
+                if (remaining[v] > 0) {
+                    levels.set(v, -1);
+                }
+            }
+        }
+        return tail;
+    }
+
+    // Earliest times of the first count vertices of a topological order: the max of the predecessors'
+    // earliest time + duration, 0 for the source
+    static void earliest(IntArray order, int count, IntArray predecessorOffsets, IntArray predecessors, IntArray durations, IntArray earliestTimes) {
+        for (int k = 0; k < count; k++) {
+            int v = order.get(k);
+            int max = 0;
+            for (int i = predecessorOffsets.get(v); i < predecessorOffsets.get(v + 1); i++) {
+                int predecessor = predecessors.get(i);
+                int time = earliestTimes.get(predecessor) + durations.get(predecessor);
+                if (time > max) {
+                    max = time;
+                }
+            }
+            earliestTimes.set(v, max);
+        }
+    }
+
+    // Latest times in the reverse order: the sink keeps its earliest time, others take the min of the successors'
+    // latest time - duration
+    static void latest(IntArray order, int count, IntArray successorOffsets, IntArray successors, IntArray durations,
+                       IntArray earliestTimes, IntArray latestTimes) {
+        for (int k = count - 1; k >= 0; k--) {
+            int v = order.get(k);
+            int first = successorOffsets.get(v);
+            int end = successorOffsets.get(v + 1);
+            if (first == end) {
+                latestTimes.set(v, earliestTimes.get(v));
+                continue;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int i = first; i < end; i++) {
+                int time = latestTimes.get(successors.get(i));
+                if (time < min) {
+                    min = time;
+                }
+            }
+            latestTimes.set(v, min - durations.get(v));
+        }
+    }
+
+    // Critical path from alpha, added to path up to the sink: at each step the zero-float successor of smallest rank,
+    // i.e. the one starting the longest path. Returns whether another successor could have been taken at some step
+    static boolean followCriticalPath(int alpha, IntArray successorOffsets, IntArray successors, IntArray ranks,
+                                      IntArray earliestTimes, IntArray latestTimes, IntList path) {
+        boolean multiplePaths = false;
+        int current = alpha;
+        path.add(current);
+        while (true) {
+            int min = -1;
+            for (int i = successorOffsets.get(current); i < successorOffsets.get(current + 1); i++) {
+                int v = successors.get(i);
+                if (latestTimes.get(v) != earliestTimes.get(v)) {
+                    continue;
+                }
+                if (min == -1) {
+                    min = v;
+                } else {
+                    if (ranks.get(v) < ranks.get(min)) {
+                        min = v;
+                    }
+                    if (ranks.get(v) == ranks.get(min)) {
+                        multiplePaths = true;
+                    }
+                }
+            }
+            if (min == -1) {
+                return multiplePaths;
+            }
+            current = min;
+            path.add(current);
+        }
+    }
+}
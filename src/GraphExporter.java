@@ -0,0 +1,318 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Exports an analysed graph for other tools: every vertex with its duration, rank, earliest and latest times, float
+// and critical flag (zero float), and the edges, as DOT (Graphviz), GraphML, CSV or JSON.
+// Vertices are written one after the other through a fixed 64 KB buffer, numbers are formatted straight into it:
+// nothing is built per vertex, so the memory used does not grow with the graph.
+// Alpha and omega are exported too, with a role instead of an id (tasks have the role task), so they never pass for
+// a task. DOT and GraphML name vertices by slot (n0, n1...), CSV and JSON list the ids of the tasks each vertex
+// waits for, alpha left out like in the constraint table.
+
+public class GraphExporter {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    public enum Format {
+        DOT, GRAPHML, CSV, JSON;
+
+        // Format from the extension of the file name
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            return switch (extension) {
+                case "dot", "gv" -> DOT;
+                case "graphml" -> GRAPHML;
+                case "csv" -> CSV;
+                case "json" -> JSON;
+                default -> throw new IllegalArgumentException("Unknown export format for " + file + ", expected .dot, .graphml, .csv or .json");
+            };
+        }
+    }
+
+    public static void write(Graph graph, Path file) throws IOException {
+        write(graph, Format.of(file), file);
+    }
+
+    public static void write(Graph graph, Format format, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(graph, format, channel);
+        }
+    }
+
+    // The channel is not closed
+    public static void write(Graph graph, Format format, WritableByteChannel channel) throws IOException {
+        if (graph.topology().cyclic) {
+            throw new IllegalStateException("Graph has a cycle, no schedule to export");
+        }
+        Output out = new Output(channel);
+        switch (format) {
+            case DOT -> writeDot(graph, out);
+            case GRAPHML -> writeGraphMl(graph, out);
+            case CSV -> writeCsv(graph, out);
+            case JSON -> writeJson(graph, out);
+        }
+        out.flush();
+    }
+
+    private static void writeDot(Graph graph, Output out) throws IOException {
+        out.ascii("digraph ").text(quote(name(graph))).ascii(" {\n  rankdir=LR;\n  node [shape=box];\n");
+        for (int v = 0; v < graph.size; v++) {
+            int earliest = graph.earliestTimes[v];
+            int latest = graph.latestTimes[v];
+            // Rank is a subgraph attribute in DOT, it goes in the label with the other values
+            out.ascii("  n").number(v).ascii(" [label=\"").text(graph.label(v))
+                    .ascii("\\nduration ").number(graph.durations[v]).ascii(", rank ").number(graph.ranks[v])
+                    .ascii("\\nearliest ").number(earliest).ascii(", latest ").number(latest).ascii(", float ").number(latest - earliest);
+            out.ascii(latest == earliest ? "\", color=red];\n" : "\"];\n");
+        }
+        for (int v = 0; v < graph.size; v++) {
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                int predecessor = graph.predecessors[i];
+                out.ascii("  n").number(predecessor).ascii(" -> n").number(v);
+                out.ascii(isCriticalEdge(graph, predecessor, v) ? " [color=red];\n" : ";\n");
+            }
+        }
+        out.ascii("}\n");
+    }
+
+    private static void writeGraphMl(Graph graph, Output out) throws IOException {
+        out.ascii("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .ascii("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n")
+                .ascii("  <key id=\"id\" for=\"node\" attr.name=\"id\" attr.type=\"long\"/>\n")
+                .ascii("  <key id=\"role\" for=\"node\" attr.name=\"role\" attr.type=\"string\"/>\n")
+                .ascii("  <key id=\"duration\" for=\"node\" attr.name=\"duration\" attr.type=\"int\"/>\n")
+                .ascii("  <key id=\"rank\" for=\"node\" attr.name=\"rank\" attr.type=\"int\"/>\n")
+                .ascii("  <key id=\"earliest\" for=\"node\" attr.name=\"earliest\" attr.type=\"int\"/>\n")
+                .ascii("  <key id=\"latest\" for=\"node\" attr.name=\"latest\" attr.type=\"int\"/>\n")
+                .ascii("  <key id=\"float\" for=\"node\" attr.name=\"float\" attr.type=\"int\"/>\n")
+                .ascii("  <key id=\"critical\" for=\"all\" attr.name=\"critical\" attr.type=\"boolean\"/>\n")
+                .ascii("  <graph id=").text(xmlAttribute(name(graph))).ascii(" edgedefault=\"directed\">\n");
+        for (int v = 0; v < graph.size; v++) {
+            int earliest = graph.earliestTimes[v];
+            int latest = graph.latestTimes[v];
+            out.ascii("    <node id=\"n").number(v).ascii("\">");
+            if (graph.isTask(v)) {
+                out.ascii("<data key=\"id\">").number(graph.ids[v]).ascii("</data>");
+            }
+            out.ascii("<data key=\"role\">").ascii(role(graph, v)).ascii("</data>")
+                    .ascii("<data key=\"duration\">").number(graph.durations[v]).ascii("</data>")
+                    .ascii("<data key=\"rank\">").number(graph.ranks[v]).ascii("</data>")
+                    .ascii("<data key=\"earliest\">").number(earliest).ascii("</data>")
+                    .ascii("<data key=\"latest\">").number(latest).ascii("</data>")
+                    .ascii("<data key=\"float\">").number(latest - earliest).ascii("</data>")
+                    .ascii("<data key=\"critical\">").ascii(latest == earliest ? "true" : "false").ascii("</data></node>\n");
+        }
+        for (int v = 0; v < graph.size; v++) {
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                int predecessor = graph.predecessors[i];
+                out.ascii("    <edge source=\"n").number(predecessor).ascii("\" target=\"n").number(v).ascii("\"><data key=\"critical\">")
+                        .ascii(isCriticalEdge(graph, predecessor, v) ? "true" : "false").ascii("</data></edge>\n");
+            }
+        }
+        out.ascii("  </graph>\n</graphml>\n");
+    }
+
+    private static void writeCsv(Graph graph, Output out) throws IOException {
+        // Predecessor ids are separated by spaces, so the column never needs quoting
+        out.ascii("id,role,duration,rank,earliest,latest,float,critical,predecessors\n");
+        for (int v = 0; v < graph.size; v++) {
+            int earliest = graph.earliestTimes[v];
+            int latest = graph.latestTimes[v];
+            if (graph.isTask(v)) {
+                out.number(graph.ids[v]);
+            }
+            out.ascii(",").ascii(role(graph, v)).ascii(",").number(graph.durations[v]).ascii(",").number(graph.ranks[v])
+                    .ascii(",").number(earliest).ascii(",").number(latest).ascii(",").number(latest - earliest)
+                    .ascii(latest == earliest ? ",true," : ",false,");
+            writePredecessors(graph, v, " ", out);
+            out.ascii("\n");
+        }
+    }
+
+    // Same field names as the schedules of ScheduleServer
+    private static void writeJson(Graph graph, Output out) throws IOException {
+        out.ascii("{\"name\":").text(quote(name(graph)))
+                .ascii(",\"tasks\":").number(graph.size - 2)
+                .ascii(",\"projectDuration\":").number(graph.getProjectDuration())
+                .ascii(",\"vertices\":[\n");
+        for (int v = 0; v < graph.size; v++) {
+            int earliest = graph.earliestTimes[v];
+            int latest = graph.latestTimes[v];
+            out.ascii(v == 0 ? "{\"id\":" : ",\n{\"id\":");
+            if (graph.isTask(v)) {
+                out.number(graph.ids[v]);
+            } else {
+                out.ascii("null");
+            }
+            out.ascii(",\"role\":\"").ascii(role(graph, v)).ascii("\"")
+                    .ascii(",\"duration\":").number(graph.durations[v])
+                    .ascii(",\"rank\":").number(graph.ranks[v])
+                    .ascii(",\"earliest\":").number(earliest)
+                    .ascii(",\"latest\":").number(latest)
+                    .ascii(",\"float\":").number(latest - earliest)
+                    .ascii(latest == earliest ? ",\"critical\":true" : ",\"critical\":false")
+                    .ascii(",\"predecessors\":[");
+            writePredecessors(graph, v, ",", out);
+            out.ascii("]}");
+        }
+        out.ascii("\n]}\n");
+    }
+
+    // Ids of the tasks among the predecessors of v
+    private static void writePredecessors(Graph graph, int v, String separator, Output out) throws IOException {
+        boolean first = true;
+        for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+            int predecessor = graph.predecessors[i];
+            if (graph.isTask(predecessor)) {
+                out.ascii(first ? "" : separator).number(graph.ids[predecessor]);
+                first = false;
+            }
+        }
+    }
+
+    private static String role(Graph graph, int v) {
+        return graph.isTask(v) ? "task" : v == graph.alpha ? "alpha" : "omega";
+    }
+
+    // An edge of a critical path: both ends critical and no slack between them
+    private static boolean isCriticalEdge(Graph graph, int from, int to) {
+        return graph.latestTimes[from] == graph.earliestTimes[from] && graph.latestTimes[to] == graph.earliestTimes[to]
+                && graph.earliestTimes[from] + graph.durations[from] == graph.earliestTimes[to];
+    }
+
+    private static String name(Graph graph) {
+        return graph.filename == null ? "graph" : graph.filename;
+    }
+
+    // Double-quoted string for DOT and JSON, both escape quotes and backslashes the same way
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> {
+                    if (c >= 0x20) {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String xmlAttribute(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("&quot;");
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                default -> {
+                    if (c >= 0x20) {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    // Buffered ASCII output to a channel, written out whenever the buffer is full
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        // Digits of a number, written from the end
+        private final byte[] digits = new byte[20];
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        // Text known to be ASCII, e.g. the fixed parts of each format
+        Output ascii(String text) throws IOException {
+            if (buffer.remaining() < text.length()) {
+                flush();
+            }
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+            return this;
+        }
+
+        // Any text, encoded as UTF-8
+        Output text(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            int done = 0;
+            while (done < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int count = Math.min(bytes.length - done, buffer.remaining());
+                buffer.put(bytes, done, count);
+                done += count;
+            }
+            return this;
+        }
+
+        Output number(long value) throws IOException {
+            if (buffer.remaining() < digits.length + 1) {
+                flush();
+            }
+            if (value < 0) {
+                buffer.put((byte) '-');
+            }
+            // Digits of a negative value, so that Long.MIN_VALUE needs no special case
+            long rest = value < 0 ? value : -value;
+            int start = digits.length;
+            do {
+                digits[--start] = (byte) ('0' - rest % 10);
+                rest /= 10;
+            } while (rest != 0);
+            buffer.put(digits, start, digits.length - start);
+            return this;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java GraphExporter <table> <output file> [dot|graphml|csv|json]");
+            return;
+        }
+        TableValidator.Report validation = TableValidator.validate(args[0]);
+        if (!validation.isValid()) {
+            System.out.print(validation);
+            return;
+        }
+        Graph graph = new Graph(args[0], validation.getTable());
+        if (graph.hasCycle(false)) {
+            System.out.println(TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET);
+            return;
+        }
+        Path file = Path.of(args[1]);
+        Format format = args.length > 2 ? Format.valueOf(args[2].toUpperCase()) : Format.of(file);
+
+        long start = System.nanoTime();
+        write(graph, format, file);
+        long elapsed = System.nanoTime() - start;
+        System.out.println(TextColor.PURPLE + (graph.size - 2) + TextColor.RESET + " tasks exported as " + format + " to " + file
+                + " in " + TextColor.PURPLE + (elapsed / 1_000_000) + TextColor.RESET + " ms");
+    }
+}
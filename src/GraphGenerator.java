@@ -0,0 +1,93 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+// Writes synthetic constraint tables in the format of src/tests, for benchmarks and large-scale runs.
+// Task ids always run from 1 to the number of tasks.
+
+public class GraphGenerator {
+
+    // Random layered DAG: each task depends on up to `predecessors` random tasks of earlier layers
+    public static Path layered(Path file, int layers, int width, int predecessors, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int layer = 0; layer < layers; layer++) {
+                for (int i = 0; i < width; i++) {
+                    int id = layer * width + i + 1;
+                    out.write(id + " " + (1 + random.nextInt(20)));
+                    if (layer > 0) {
+                        for (int p = 0; p < predecessors; p++) {
+                            out.write(" " + (1 + random.nextInt(layer * width)));
+                        }
+                    }
+                    out.newLine();
+                }
+            }
+        }
+        return file;
+    }
+
+    // Single chain 1 <- 2 <- ... <- length, as deep as a graph of this size can be
+    public static Path chain(Path file, int length) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("1 1");
+            out.newLine();
+            for (int id = 2; id <= length; id++) {
+                out.write(id + " " + (id % 7 + 1) + " " + (id - 1));
+                out.newLine();
+            }
+        }
+        return file;
+    }
+
+    // Task 1 fans out to `width` independent tasks which all fan in to the last task
+    public static Path fan(Path file, int width) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("1 1");
+            out.newLine();
+            for (int id = 2; id <= width + 1; id++) {
+                out.write(id + " " + (id % 11 + 1) + " 1");
+                out.newLine();
+            }
+            StringBuilder last = new StringBuilder().append(width + 2).append(" 1");
+            for (int id = 2; id <= width + 1; id++) {
+                last.append(' ').append(id);
+            }
+            out.write(last.toString());
+            out.newLine();
+        }
+        return file;
+    }
+
+    // Layered DAG where the first task also depends on a task of the last layer, closing a cycle through the graph
+    public static Path cyclic(Path file, int layers, int width, int predecessors, long seed) throws IOException {
+        Random random = new Random(seed);
+        int tasks = layers * width;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int layer = 0; layer < layers; layer++) {
+                for (int i = 0; i < width; i++) {
+                    int id = layer * width + i + 1;
+                    out.write(id + " " + (1 + random.nextInt(20)));
+                    if (id == 1) {
+                        out.write(" " + tasks);
+                    } else if (layer == 0 && i == width - 1) {
+                        out.write(" 1");
+                    } else if (layer > 0) {
+                        for (int p = 0; p < predecessors; p++) {
+                            out.write(" " + (1 + random.nextInt(layer * width)));
+                        }
+                        if (i == width - 1) {
+                            // Chain the last task of every layer so that the last task depends on task 1
+                            out.write(" " + (layer * width));
+                        }
+                    }
+                    out.newLine();
+                }
+            }
+        }
+        return file;
+    }
+}
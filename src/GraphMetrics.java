@@ -0,0 +1,116 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Time spent, number of runs and vertices/edges touched by each phase of the analysis of a graph.
+// Counters are primitive arrays indexed by phase, so recording a phase allocates nothing. Each phase is also
+// published as a JFR event when a recording is running, and to an optional listener.
+
+public class GraphMetrics {
+    public enum Phase { PARSE, CYCLE_CHECK, REDUCTION, RANKS, EARLIEST, LATEST, CRITICAL_PATH }
+
+    public interface Listener {
+        void onPhase(Phase phase, long nanos, long vertices, long edges);
+    }
+
+    @Name("graph.Phase")
+    @Label("Graph Phase")
+    @Category("Graph")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+
+        @Label("Vertices")
+        long vertices;
+
+        @Label("Edges")
+        long edges;
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] runs = new long[PHASES.length];
+    private final long[] vertices = new long[PHASES.length];
+    private final long[] edges = new long[PHASES.length];
+    private Listener listener;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    void record(Phase phase, long start, long vertexCount, long edgeCount) {
+        long elapsed = System.nanoTime() - start;
+        int i = phase.ordinal();
+        nanos[i] += elapsed;
+        runs[i]++;
+        vertices[i] += vertexCount;
+        edges[i] += edgeCount;
+
+        // Not allocated when JFR is off: the event never escapes and is eliminated by the JIT
+        PhaseEvent event = new PhaseEvent();
+        if (event.shouldCommit()) {
+            event.phase = phase.name();
+            event.time = elapsed;
+            event.vertices = vertexCount;
+            event.edges = edgeCount;
+            event.commit();
+        }
+
+        if (listener != null) {
+            listener.onPhase(phase, elapsed, vertexCount, edgeCount);
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            nanos[i] = 0;
+            runs[i] = 0;
+            vertices[i] = 0;
+            edges[i] = 0;
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(nanos.clone(), runs.clone(), vertices.clone(), edges.clone());
+    }
+
+    public record Snapshot(long[] nanos, long[] runs, long[] vertices, long[] edges) {
+        public long nanos(Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        public long runs(Phase phase) {
+            return runs[phase.ordinal()];
+        }
+
+        public long vertices(Phase phase) {
+            return vertices[phase.ordinal()];
+        }
+
+        public long edges(Phase phase) {
+            return edges[phase.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Phase\t\tRuns\tTime (ms)\tVertices\tEdges\n");
+            for (Phase phase : PHASES) {
+                int i = phase.ordinal();
+                sb.append(TextColor.CYAN).append(phase).append(TextColor.RESET).append(phase.name().length() < 8 ? "\t\t" : "\t")
+                        .append(runs[i]).append("\t")
+                        .append(TextColor.YELLOW).append(String.format("%.3f", nanos[i] / 1e6)).append(TextColor.RESET).append("\t\t")
+                        .append(vertices[i]).append("\t\t")
+                        .append(edges[i]).append("\n");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Binary snapshot of an analysed graph: storage arrays, topological order, ranks and both times.
+// Loading maps the file and bulk-copies each section into the graph arrays, nothing is parsed or recomputed.
+//
+// Layout (little endian): ints magic, version, size, edges, alpha, omega, levelCount, orderLength, cyclic,
+// filename length, filename bytes padded to 8, the ids as longs, then the int arrays in the order of sections() below.
+
+public class GraphSnapshot {
+    static final int MAGIC = 0x48505247; // "GRPH"
+    static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 10;
+    // Windows of at most 1 GB are mapped at a time, a MappedByteBuffer cannot exceed 2 GB
+    private static final int WINDOW_BYTES = 1 << 30;
+
+    public static void write(Graph graph, Path file) throws IOException {
+        TopologicalOrder topology = graph.topology();
+        byte[] filename = (graph.filename == null ? "" : graph.filename).getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(graph.size).putInt(graph.predecessors.length)
+                    .putInt(graph.alpha).putInt(graph.omega)
+                    .putInt(topology.levelCount).putInt(topology.order.length)
+                    .putInt(topology.cyclic ? 1 : 0)
+                    .putInt(filename.length);
+            writeBytes(channel, buffer, filename);
+
+            int written = 0;
+            while (written < graph.ids.length) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush(channel, buffer);
+                }
+                int count = Math.min(graph.ids.length - written, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(graph.ids, written, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                written += count;
+            }
+
+            for (int[] section : sections(graph, topology)) {
+                int done = 0;
+                while (done < section.length) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        flush(channel, buffer);
+                    }
+                    int count = Math.min(section.length - done, buffer.remaining() / Integer.BYTES);
+                    buffer.asIntBuffer().put(section, done, count);
+                    buffer.position(buffer.position() + count * Integer.BYTES);
+                    done += count;
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    public static Graph read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer headerMap = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_INTS * Integer.BYTES));
+            IntBuffer header = headerMap.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (header.remaining() < HEADER_INTS || header.get(0) != MAGIC) {
+                throw new IOException(file + " is not a graph snapshot");
+            }
+            if (header.get(1) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + header.get(1) + " in " + file);
+            }
+            int size = header.get(2);
+            int edges = header.get(3);
+            int alpha = header.get(4);
+            int omega = header.get(5);
+            int levelCount = header.get(6);
+            int orderLength = header.get(7);
+            boolean cyclic = header.get(8) != 0;
+            int filenameLength = header.get(9);
+
+            // The header is checked against the file size before any array is allocated
+            boolean consistent = size >= 2 && edges >= 0 && alpha == 0 && omega == size - 1
+                    && orderLength >= 0 && orderLength <= size && levelCount >= 0 && levelCount <= orderLength
+                    && cyclic == (orderLength < size) && filenameLength >= 0;
+            long ints = 7L * size + 2 + 2L * edges + orderLength + levelCount + 1;
+            if (!consistent || HEADER_INTS * Integer.BYTES + padded(filenameLength) + (long) size * Long.BYTES + ints * Integer.BYTES != channel.size()) {
+                throw new IOException("Truncated or corrupted snapshot " + file);
+            }
+
+            long position = HEADER_INTS * Integer.BYTES;
+            ByteBuffer filename = ByteBuffer.allocate(filenameLength);
+            channel.read(filename, position);
+            position += padded(filenameLength);
+
+            Graph graph = new Graph(new String(filename.array(), StandardCharsets.UTF_8), size, edges);
+            graph.alpha = alpha;
+            graph.omega = omega;
+            TopologicalOrder topology = new TopologicalOrder(new int[orderLength], new int[levelCount + 1], new int[size], cyclic);
+
+            position = readLongs(channel, position, graph.ids);
+            for (int[] section : sections(graph, topology)) {
+                position = readInts(channel, position, section);
+            }
+            if (position != channel.size()
+                    || !validEdges(graph.predecessorOffsets, graph.predecessors, size) || !validEdges(graph.successorOffsets, graph.successors, size)
+                    || !validTopology(topology, size)) {
+                throw new IOException("Truncated or corrupted snapshot " + file);
+            }
+
+            try {
+                graph.indexSlots();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupted snapshot " + file + ": " + e.getMessage());
+            }
+            graph.restoreTopology(topology);
+            return graph;
+        }
+    }
+
+    // Offsets start at 0, never decrease and end at the number of edges, every edge points to a slot
+    private static boolean validEdges(int[] offsets, int[] neighbours, int size) {
+        if (offsets[0] != 0 || offsets[size] != neighbours.length) {
+            return false;
+        }
+        for (int v = 0; v < size; v++) {
+            if (offsets[v] > offsets[v + 1]) {
+                return false;
+            }
+        }
+        for (int neighbour : neighbours) {
+            if (neighbour < 0 || neighbour >= size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean validTopology(TopologicalOrder topology, int size) {
+        int[] levelOffsets = topology.levelOffsets;
+        if (levelOffsets[0] != 0 || levelOffsets[topology.levelCount] != topology.order.length) {
+            return false;
+        }
+        for (int level = 0; level < topology.levelCount; level++) {
+            if (levelOffsets[level] > levelOffsets[level + 1]) {
+                return false;
+            }
+        }
+        for (int v : topology.order) {
+            if (v < 0 || v >= size) {
+                return false;
+            }
+        }
+        for (int level : topology.levels) {
+            if (level < -1 || level >= topology.levelCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[][] sections(Graph graph, TopologicalOrder topology) {
+        return new int[][] {
+                graph.durations,
+                graph.predecessorOffsets, graph.predecessors,
+                graph.successorOffsets, graph.successors,
+                graph.ranks, graph.earliestTimes, graph.latestTimes,
+                topology.order, topology.levelOffsets, topology.levels,
+        };
+    }
+
+    private static long readInts(FileChannel channel, long position, int[] destination) throws IOException {
+        int done = 0;
+        while (done < destination.length) {
+            int count = Math.min(destination.length - done, WINDOW_BYTES / Integer.BYTES);
+            long bytes = (long) count * Integer.BYTES;
+            if (position + bytes > channel.size()) {
+                throw new IOException("Truncated snapshot");
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+            window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(destination, done, count);
+            done += count;
+            position += bytes;
+        }
+        return position;
+    }
+
+    private static long readLongs(FileChannel channel, long position, long[] destination) throws IOException {
+        int done = 0;
+        while (done < destination.length) {
+            int count = Math.min(destination.length - done, WINDOW_BYTES / Long.BYTES);
+            long bytes = (long) count * Long.BYTES;
+            if (position + bytes > channel.size()) {
+                throw new IOException("Truncated snapshot");
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+            window.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(destination, done, count);
+            done += count;
+            position += bytes;
+        }
+        return position;
+    }
+
+    private static void writeBytes(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        flush(channel, buffer);
+        channel.write(ByteBuffer.wrap(bytes));
+        channel.write(ByteBuffer.allocate(padded(bytes.length) - bytes.length));
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GraphSnapshot <table> <snapshot file> to write one, java GraphSnapshot <snapshot file> to load it");
+            return;
+        }
+        long start = System.nanoTime();
+        Graph graph;
+        if (args.length > 1) {
+            TableValidator.Report validation = TableValidator.validate(args[0]);
+            if (!validation.isValid()) {
+                System.out.print(validation);
+                return;
+            }
+            // The constructor already computed the ranks and both times
+            graph = new Graph(args[0], validation.getTable());
+            write(graph, Path.of(args[1]));
+        } else {
+            graph = read(Path.of(args[0]));
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(TextColor.PURPLE + (graph.size - 2) + TextColor.RESET + " tasks of " + graph.filename
+                + (args.length > 1 ? " written to " + args[1] : " loaded") + " in " + TextColor.PURPLE + (elapsed / 1_000_000) + TextColor.RESET + " ms");
+        if (graph.hasCycle(false) || graph.hasNegativeDuration(false)) {
+            System.out.println(TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET);
+            return;
+        }
+        System.out.println("Project duration: " + TextColor.YELLOW + graph.getProjectDuration() + TextColor.RESET
+                + ", critical path of " + graph.getCriticalPath().length + " tasks");
+    }
+
+    // The header is 40 bytes, padding the filename to 8 keeps the ids aligned
+    private static int padded(int length) {
+        return (length + 7) & ~7;
+    }
+}
@@ -0,0 +1,24 @@
+// Int array behind an index, so that the graph algorithms of GraphArrays run on heap arrays (Graph)
+// and on memory-mapped sections (MappedGraph) alike. A call site only ever sees one or two implementations,
+// so the JIT inlines get and set down to the array or buffer access.
+
+public interface IntArray {
+    int get(int index);
+
+    void set(int index, int value);
+
+    // View of a heap array, writes go to the array
+    static IntArray of(int[] array) {
+        return new IntArray() {
+            @Override
+            public int get(int index) {
+                return array[index];
+            }
+
+            @Override
+            public void set(int index, int value) {
+                array[index] = value;
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+// Result of a list schedule: start time and worker of each task, makespan and per-worker timelines.
+// Timelines are stored like the graph edges, the tasks of worker w in start order are
+// tasks[workerOffsets[w] .. workerOffsets[w + 1]].
+
+public class ListSchedule {
+    private final Graph graph;
+    private final int workers;
+    private final int[] start;
+    private final int[] workerOf;
+    private final int makespan;
+    private final int[] workerOffsets;
+    private final int[] tasks;
+    private final long[] busy;
+
+    ListSchedule(Graph graph, int workers, int[] start, int[] workerOf, int[] started, int makespan) {
+        this.graph = graph;
+        this.workers = workers;
+        this.start = start;
+        this.workerOf = workerOf;
+        this.makespan = makespan;
+
+        // Tasks come in start order, a counting sort by worker keeps that order within each worker
+        workerOffsets = new int[workers + 1];
+        busy = new long[workers];
+        for (int v : started) {
+            workerOffsets[workerOf[v] + 1]++;
+            busy[workerOf[v]] += graph.durations[v];
+        }
+        for (int w = 0; w < workers; w++) {
+            workerOffsets[w + 1] += workerOffsets[w];
+        }
+        tasks = new int[started.length];
+        int[] next = new int[workers];
+        System.arraycopy(workerOffsets, 0, next, 0, workers);
+        for (int v : started) {
+            tasks[next[workerOf[v]]++] = v;
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getMakespan() {
+        return makespan;
+    }
+
+    public int getStart(long id) {
+        return start[task(id)];
+    }
+
+    public int getWorker(long id) {
+        return workerOf[task(id)];
+    }
+
+    // Ids of the tasks run by the worker, in start order
+    public long[] getTimeline(int worker) {
+        long[] ids = new long[workerOffsets[worker + 1] - workerOffsets[worker]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.ids[tasks[workerOffsets[worker] + i]];
+        }
+        return ids;
+    }
+
+    public long getIdleTime(int worker) {
+        return makespan - busy[worker];
+    }
+
+    public long getIdleTime() {
+        long idle = 0;
+        for (int w = 0; w < workers; w++) {
+            idle += getIdleTime(w);
+        }
+        return idle;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Workers: ").append(TextColor.PURPLE).append(workers).append(TextColor.RESET)
+                .append(" Makespan: ").append(TextColor.YELLOW).append(makespan).append(TextColor.RESET)
+                .append(" Idle time: ").append(TextColor.RED).append(getIdleTime()).append(TextColor.RESET).append("\n");
+        for (int w = 0; w < workers; w++) {
+            sb.append("Worker ").append(w).append(" (idle ").append(getIdleTime(w)).append("): ");
+            for (int i = workerOffsets[w]; i < workerOffsets[w + 1]; i++) {
+                int v = tasks[i];
+                sb.append(TextColor.CYAN).append(graph.ids[v]).append(TextColor.RESET)
+                        .append(" [").append(start[v]).append(", ").append(start[v] + graph.durations[v]).append(")");
+                if (i != workerOffsets[w + 1] - 1) {
+                    sb.append(" ");
+                }
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private int task(long id) {
+        int v = graph.slotOf(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+// List scheduling of the tasks of an analysed graph on a fixed number of identical workers.
+// Whenever a worker is free and tasks are ready, the ready task with the smallest latest start time is started,
+// i.e. the one with the least slack in the unlimited-resource schedule, ties going to the smallest id.
+// Time jumps from one completion to the next, running tasks are kept in a heap ordered by end time.
+// Tasks are numbered once per graph in priority order, so the ready queue and the free workers are bit queues.
+// A schedule takes O(E + V log k) for k workers, after an O(V log V) sort shared by every worker count.
+
+public class ListScheduler {
+    private final Graph graph;
+    // Number of unfinished predecessors of each slot, refilled from the graph for every schedule
+    private final int[] remaining;
+    // Tasks sorted by priority: taskAt[p] is the slot with priority p, priorityOf is the inverse
+    private final int[] taskAt;
+    private final int[] priorityOf;
+    private final BitQueue ready;
+    private final LongHeap running;
+
+    ListScheduler(Graph graph) {
+        this.graph = graph;
+        this.remaining = new int[graph.size];
+
+        long[] keys = new long[graph.size];
+        for (int v = 0; v < graph.size; v++) {
+            keys[v] = ((long) graph.latestTimes[v] << 32) | v;
+        }
+        Arrays.sort(keys);
+        this.taskAt = new int[graph.size];
+        this.priorityOf = new int[graph.size];
+        for (int p = 0; p < graph.size; p++) {
+            taskAt[p] = (int) keys[p];
+            priorityOf[taskAt[p]] = p;
+        }
+
+        this.ready = new BitQueue(graph.size);
+        this.running = new LongHeap(64);
+    }
+
+    public ListSchedule schedule(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed, got " + workers);
+        }
+        int size = graph.size;
+        int[] start = new int[size];
+        int[] workerOf = new int[size];
+        // Tasks in the order they were started, which is also start time order
+        int[] started = new int[size - 2];
+        int startedCount = 0;
+        ready.clear();
+        running.clear();
+        BitQueue freeWorkers = new BitQueue(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            freeWorkers.add(worker);
+        }
+        for (int v = 0; v < size; v++) {
+            remaining[v] = graph.predecessorOffsets[v + 1] - graph.predecessorOffsets[v];
+        }
+
+        // Alpha and omega take no worker, alpha is done at time 0
+        int time = 0;
+        release(graph.alpha, time, start);
+        while (true) {
+            // Lowest numbered free worker takes the most urgent ready task
+            while (!ready.isEmpty() && !freeWorkers.isEmpty()) {
+                int v = taskAt[ready.poll()];
+                int worker = freeWorkers.poll();
+                start[v] = time;
+                workerOf[v] = worker;
+                started[startedCount++] = v;
+                running.push(((long) Math.addExact(time, graph.durations[v]) << 32) | v);
+            }
+            if (running.isEmpty()) {
+                break;
+            }
+
+            // Every task ending at the next completion time frees its worker before new tasks are picked
+            time = (int) (running.peek() >>> 32);
+            while (!running.isEmpty() && (int) (running.peek() >>> 32) == time) {
+                int v = (int) running.pop();
+                freeWorkers.add(workerOf[v]);
+                release(v, time, start);
+            }
+        }
+        return new ListSchedule(graph, workers, start, workerOf, started, start[graph.omega]);
+    }
+
+    private void release(int v, int time, int[] start) {
+        for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+            int successor = graph.successors[i];
+            if (--remaining[successor] == 0) {
+                if (successor == graph.omega) {
+                    start[successor] = time;
+                } else {
+                    ready.add(priorityOf[successor]);
+                }
+            }
+        }
+    }
+}
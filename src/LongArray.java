@@ -0,0 +1,10 @@
+// Read access to a long array, the id counterpart of IntArray: task ids and raw predecessor ids
+// are read the same way from heap arrays, lists and memory-mapped sections
+
+public interface LongArray {
+    long get(int index);
+
+    static LongArray of(long[] array) {
+        return index -> array[index];
+    }
+}
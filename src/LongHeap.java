@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+// Binary min-heap of primitive longs, callers pack a priority in the high bits and a slot in the low bits
+
+public class LongHeap {
+    private long[] values;
+    private int size;
+
+    public LongHeap(int capacity) {
+        this.values = new long[Math.max(capacity, 1)];
+    }
+
+    public void push(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (values[parent] <= value) {
+                break;
+            }
+            values[i] = values[parent];
+            i = parent;
+        }
+        values[i] = value;
+    }
+
+    public long pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        long top = values[0];
+        long last = values[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && values[child + 1] < values[child]) {
+                child++;
+            }
+            if (last <= values[child]) {
+                break;
+            }
+            values[i] = values[child];
+            i = child;
+        }
+        values[i] = last;
+        return top;
+    }
+
+    public long peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return values[0];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -2,6 +2,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class Main {
@@ -9,61 +10,91 @@ public class Main {
         Scanner scanner = new Scanner(System.in);
 
         // Setup trace file and outputs
-        FileOutputStream traceFile = new FileOutputStream("trace.txt", true);
-        traceFile.write("\n\n".getBytes());
-        MultiOutputStream multiOut = new MultiOutputStream(System.out, traceFile);
-        PrintStream printStream = new PrintStream(multiOut);
+        PrintStream console = System.out;
+        TraceWriter trace = new TraceWriter(console, new FileOutputStream("trace.txt", true));
+        trace.writeTraceOnly("\n\n".getBytes());
+        PrintStream printStream = new PrintStream(trace);
         System.setOut(printStream);
 
-        boolean run = true;
-        while (run){
-            try {
-                System.out.print("Enter constraint table to use (ex: table 1): ");
-                String table = scanner.nextLine();
-                traceFile.write((table + '\n').getBytes());
+        // -Dgraph.snapshots=<directory> keeps the analyses across runs
+        String snapshots = System.getProperty("graph.snapshots");
+        ResultCache cache = new ResultCache(Long.getLong("graph.cache.bytes", 64L << 20), snapshots == null ? null : Path.of(snapshots));
 
-                Graph graph = new Graph("src/tests/" + table + ".txt");
+        try {
+            boolean run = true;
+            while (run){
+                try {
+                    System.out.print("Enter constraint table to use (ex: table 1): ");
+                    String table = scanner.nextLine();
+                    trace.writeTraceOnly((table + '\n').getBytes());
 
-                System.out.println("Reading graph from table (adding alpha and omega):");
-                graph.displayTriplets();
-                graph.displayValueMatrix();
+                    // Tables asked for again are served from the cache unless their file changed
+                    ResultCache.Analysis analysis = cache.analyse("src/tests/" + table + ".txt");
+                    System.out.write(analysis.report(), 0, analysis.report().length);
 
-                if (!graph.hasCycle(true) && !graph.hasNegativeDuration(true)){
-                    System.out.println(TextColor.GREEN + "This graph is a scheduling graph" + TextColor.RESET + "\n");
-
-                    System.out.println("Calculating ranks by successively removing vertices with no predecessors:");
-                    graph.computeRanks(true);
-                    System.out.println();
+                }catch (Exception e){
+                    System.out.println(TextColor.RED + "Error: " + e.getMessage() + TextColor.RESET);
+                }
+                finally {
+                    // Hand the trace of this table to the writer thread
+                    printStream.flush();
+                    System.out.print("Do you want to continue? (y/n): ");
+                    String answer = scanner.nextLine();
+                    trace.writeTraceOnly((answer + '\n').getBytes());
+                    if (answer.equals("n")){
+                        run = false;
+                    }
+                }
+            }
+        } finally {
+            // Write what is left of the trace before leaving, also when the input ends or an error escapes
+            printStream.flush();
+            trace.close();
+            System.setOut(console);
+        }
+    }
 
-                    System.out.println("Computing earliest times of each vertex:");
-                    graph.computeEarliestTime(true);
+    // Whether graphs are built without the edges implied by longer paths, set with -Dgraph.reduce=true
+    static boolean reduce() {
+        return Boolean.getBoolean("graph.reduce");
+    }
 
-                    System.out.println("Computing latest times of each vertex:");
-                    graph.computeLatestTime(true);
+    // Full analysis of a graph, returns whether it is a scheduling graph
+    static boolean analyse(Graph graph, PrintStream out) {
+        graph.setOutput(out);
 
-                    graph.displayTimes();
-                    System.out.println();
+        out.println("Reading graph from table (adding alpha and omega):");
+        graph.displayTriplets();
+        graph.displayValueMatrix();
 
-                    System.out.println("Displaying critical path:");
-                    graph.displayCriticalPath();
-                    System.out.println();
-                }else{
-                    System.out.println(TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET + "\n");
-                }
+        if (!graph.hasCycle(true) && !graph.hasNegativeDuration(true)){
+            out.println(TextColor.GREEN + "This graph is a scheduling graph" + TextColor.RESET + "\n");
 
-            }catch (Exception e){
-                System.out.println(TextColor.RED + "Error: " + e.getMessage() + TextColor.RESET);
+            // Optional, done when the graph is built: the times and the critical path do not change but every sweep has fewer edges
+            if (graph.getRemovedImpliedEdges() > 0) {
+                out.println("Removed " + TextColor.RED + graph.getRemovedImpliedEdges() + TextColor.RESET + " edges implied by longer paths before the computations" + "\n");
             }
-            finally {
-                System.out.print("Do you want to continue? (y/n): ");
-                String answer = scanner.nextLine();
-                traceFile.write((answer + '\n').getBytes());
-                if (answer.equals("n")){
-                    run = false;
-                }
-            }
-        }
-        System.exit(0);
 
+            out.println("Calculating ranks by successively removing vertices with no predecessors:");
+            graph.computeRanks(true);
+            out.println();
+
+            out.println("Computing earliest times of each vertex:");
+            graph.computeEarliestTime(true);
+
+            out.println("Computing latest times of each vertex:");
+            graph.computeLatestTime(true);
+
+            graph.displayTimes();
+            out.println();
+
+            out.println("Displaying critical path:");
+            graph.displayCriticalPath();
+            out.println();
+            return true;
+        }else{
+            out.println(TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET + "\n");
+            return false;
+        }
     }
 }
\ No newline at end of file
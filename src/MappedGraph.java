@@ -0,0 +1,344 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Scheduling graph for tables too large for the heap: the same slots and compressed sparse row arrays as Graph,
+// with the same rules for alpha, omega and duplicate predecessors, but every array lives in a MappedStorage file,
+// so the size of a graph is bounded by disk and page cache rather than -Xmx, and graph data never causes a GC pause.
+// Only ranks, both times and the critical path are computed, by the code of GraphArrays that Graph runs on its heap
+// arrays: the build, the topological pass, both sweeps and the critical path walk. Everything else needs a Graph:
+// cycle and negative duration reports, transitive reduction, incremental updates, scenarios, list scheduling,
+// snapshots and exports.
+// The table is parsed one chunk at a time and the raw predecessor ids go to a temporary mapped file, so edges never
+// sit on the heap; the build only keeps a few per-vertex arrays and the id index there.
+// The storage file can be reopened later without parsing: java MappedGraph -open <storage file>
+//
+// Storage layout: ints magic, version, size, edges, cyclic, order length, then the sections in the order of mapSections().
+
+public class MappedGraph implements AutoCloseable {
+    static final int MAGIC = 0x5050414D; // "MAPP"
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 6;
+
+    private final MappedStorage storage;
+    private final MappedStorage.Ints header;
+    private int size;
+    private int edges;
+    private int alpha;
+    private int omega;
+    private boolean cyclic;
+    // Vertices reached by the topological pass, in that order: the first reached of them are order[0 .. reached]
+    private int reached;
+
+    private MappedStorage.Longs ids;
+    private MappedStorage.Ints durations;
+    private MappedStorage.Ints predecessorOffsets;
+    private MappedStorage.Ints predecessors;
+    private MappedStorage.Ints successorOffsets;
+    private MappedStorage.Ints successors;
+    private MappedStorage.Ints order;
+    private MappedStorage.Ints ranks;
+    private MappedStorage.Ints earliestTimes;
+    private MappedStorage.Ints latestTimes;
+
+    private LongIntMap slotOfId;
+
+    private MappedGraph(MappedStorage storage) throws IOException {
+        this.storage = storage;
+        this.header = storage.ints(HEADER_INTS);
+    }
+
+    // Builds the graph of a table in a new storage file, deleted on close when temporary
+    public static MappedGraph build(String filepath, Path file, boolean temporary) throws IOException {
+        MappedGraph graph = new MappedGraph(new MappedStorage(file, true, temporary));
+        try {
+            graph.buildStorage(filepath, file.resolveSibling(file.getFileName() + ".edges"));
+        } catch (IOException | RuntimeException e) {
+            graph.close();
+            throw e;
+        }
+        graph.computeRanks();
+        graph.computeEarliestTime();
+        graph.computeLatestTime();
+        graph.header.set(4, graph.cyclic ? 1 : 0);
+        graph.header.set(5, graph.reached);
+        return graph;
+    }
+
+    // Reopens a storage file written by build, nothing is parsed or recomputed
+    public static MappedGraph open(Path file) throws IOException {
+        checkHeader(file);
+        MappedGraph graph = new MappedGraph(new MappedStorage(file, false, false));
+        try {
+            graph.size = graph.header.get(2);
+            graph.edges = graph.header.get(3);
+            graph.cyclic = graph.header.get(4) != 0;
+            graph.reached = graph.header.get(5);
+            graph.alpha = 0;
+            graph.omega = graph.size - 1;
+            graph.mapSections();
+            graph.mapEdges();
+            graph.mapTimes();
+            // The end of the last section is padded to 8 bytes, the file is not
+            if (graph.storage.end() != ((graph.storage.fileSize() + 7) & ~7L)
+                    || graph.predecessorOffsets.get(graph.size) != graph.edges || graph.successorOffsets.get(graph.size) != graph.edges) {
+                throw new IOException("Truncated or corrupted mapped graph " + file);
+            }
+            graph.indexSlots();
+        } catch (IOException | RuntimeException e) {
+            graph.close();
+            throw e;
+        }
+        return graph;
+    }
+
+    // The header is read without mapping anything, a file that is not a mapped graph is left as it is
+    private static void checkHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            if (buffer.hasRemaining() || buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a mapped graph");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported mapped graph version " + buffer.getInt(4) + " in " + file);
+            }
+            int size = buffer.getInt(8);
+            int edges = buffer.getInt(12);
+            boolean cyclic = buffer.getInt(16) != 0;
+            int reached = buffer.getInt(20);
+            if (size < 2 || edges < 0 || reached < 0 || reached > size || cyclic != (reached < size)) {
+                throw new IOException("Corrupted mapped graph " + file);
+            }
+        }
+    }
+
+    private void mapSections() throws IOException {
+        ids = storage.longs(size);
+        durations = storage.ints(size);
+        predecessorOffsets = storage.ints(size + 1);
+    }
+
+    private void mapEdges() throws IOException {
+        predecessors = storage.ints(edges);
+        successorOffsets = storage.ints(size + 1);
+        successors = storage.ints(edges);
+    }
+
+    private void mapTimes() throws IOException {
+        order = storage.ints(size);
+        ranks = storage.ints(size);
+        earliestTimes = storage.ints(size);
+        latestTimes = storage.ints(size);
+    }
+
+    private void buildStorage(String filepath, Path edgeFile) throws IOException {
+        LongList rowIds = new LongList();
+        IntList rowDurations = new IntList();
+        // First raw predecessor of each row in the edge file
+        IntList rowStarts = new IntList();
+
+        try (FileInputStream in = new FileInputStream(filepath); FileChannel channel = in.getChannel();
+             MappedStorage edgeStorage = new MappedStorage(edgeFile, true, true)) {
+            // Each predecessor takes at least two bytes of the table, the file is sparse until written
+            MappedStorage.Longs rawPredecessors = edgeStorage.longs((int) Math.min(Integer.MAX_VALUE - 8, channel.size() / 2 + 1));
+            int rawCount = 0;
+            long[] bounds = TableParser.chunkBounds(channel, TableParser.CHUNK_SIZE);
+            for (int chunk = 0; chunk < bounds.length - 1; chunk++) {
+                ConstraintTable part = new ConstraintTable(4096, 8192);
+                TableParser.parseChunk(channel, bounds[chunk], bounds[chunk + 1], part);
+                for (int row = 0; row < part.rows(); row++) {
+                    rowIds.add(part.id(row));
+                    rowDurations.add(part.duration(row));
+                    rowStarts.add(rawCount);
+                    for (int i = part.predecessorStart(row); i < part.predecessorEnd(row); i++) {
+                        if (rawCount == rawPredecessors.length()) {
+                            throw new IllegalArgumentException("Too many predecessors in " + filepath);
+                        }
+                        rawPredecessors.set(rawCount++, part.predecessor(i));
+                    }
+                }
+            }
+
+            // Same slots as Graph: alpha first, tasks sorted by id, omega last
+            int rows = rowIds.size();
+            size = rows + 2;
+            alpha = 0;
+            omega = size - 1;
+            header.set(0, MAGIC);
+            header.set(1, VERSION);
+            header.set(2, size);
+            mapSections();
+
+            long[] sortedIds = rowIds.toArray();
+            Arrays.sort(sortedIds);
+            ids.set(alpha, 0);
+            for (int slot = 1; slot <= rows; slot++) {
+                ids.set(slot, sortedIds[slot - 1]);
+            }
+            ids.set(omega, rows + 1);
+            indexSlots();
+
+            int[] slotOfRow = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                slotOfRow[row] = slotOfId.get(rowIds.get(row));
+                durations.set(slotOfRow[row], rowDurations.get(row));
+            }
+
+            // Same edges as Graph, built by the same code: the slots of the raw predecessors go to the edge file too
+            GraphArrays.PredecessorBuilder builder = new GraphArrays.PredecessorBuilder(filepath, size, slotOfRow, rowStarts, rawCount,
+                    edgeStorage.ints(rawCount), predecessorOffsets);
+            edges = builder.count(rawPredecessors, ids, slotOfId);
+            header.set(3, edges);
+            mapEdges();
+            builder.fill(predecessors);
+        }
+
+        GraphArrays.reverse(size, edges, predecessorOffsets, predecessors, successorOffsets, successors);
+        mapTimes();
+    }
+
+    private void indexSlots() {
+        slotOfId = GraphArrays.indexSlots(ids, size);
+    }
+
+    // Rank of a vertex is its level in the topological order: the mapped order doubles as the queue of the pass
+    public void computeRanks() {
+        reached = GraphArrays.release(size, predecessorOffsets, successorOffsets, successors, ranks, order);
+        cyclic = reached < size;
+    }
+
+    // The order of the pass is topological without being sorted by rank, which is all the sweeps need
+    public void computeEarliestTime() {
+        if (cyclic) {
+            return;
+        }
+        GraphArrays.earliest(order, reached, predecessorOffsets, predecessors, durations, earliestTimes);
+    }
+
+    public void computeLatestTime() {
+        if (cyclic) {
+            return;
+        }
+        GraphArrays.latest(order, reached, successorOffsets, successors, durations, earliestTimes, latestTimes);
+    }
+
+    public boolean hasCycle() {
+        return cyclic;
+    }
+
+    public int getTaskCount() {
+        return size - 2;
+    }
+
+    public int getEdgeCount() {
+        return edges;
+    }
+
+    public int getProjectDuration() {
+        requireAcyclic();
+        return earliestTimes.get(omega);
+    }
+
+    public int getDuration(long id) {
+        return durations.get(task(id));
+    }
+
+    public int getRank(long id) {
+        return ranks.get(task(id));
+    }
+
+    public int getEarliestTime(long id) {
+        requireAcyclic();
+        return earliestTimes.get(task(id));
+    }
+
+    public int getLatestTime(long id) {
+        requireAcyclic();
+        return latestTimes.get(task(id));
+    }
+
+    // Same walk as Graph: from the source, the zero-float successor of smallest rank. Ids of the tasks only
+    public long[] getCriticalPath() {
+        requireAcyclic();
+        IntList path = new IntList();
+        GraphArrays.followCriticalPath(alpha, successorOffsets, successors, ranks, earliestTimes, latestTimes, path);
+        long[] ids = new long[Math.max(0, path.size() - 2)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = this.ids.get(path.get(i + 1));
+        }
+        return ids;
+    }
+
+    // Times are still computed with a negative duration, but a Graph refuses to schedule such a table
+    public boolean hasNegativeDuration() {
+        for (int v = 0; v < size; v++) {
+            if (durations.get(v) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void force() throws IOException {
+        storage.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        storage.close();
+    }
+
+    private int task(long id) {
+        int v = slotOfId.get(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        return v;
+    }
+
+    private void requireAcyclic() {
+        if (cyclic) {
+            throw new IllegalStateException("Graph has a cycle, no times");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java MappedGraph <table> [storage file], or java MappedGraph -open <storage file>");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean reopen = args[0].equals("-open") && args.length > 1;
+        boolean temporary = !reopen && args.length < 2;
+        Path file = temporary ? Files.createTempFile("graph", ".mapped") : Path.of(args[1]);
+        try (MappedGraph graph = reopen ? open(file) : build(args[0], file, temporary)) {
+            long elapsed = System.nanoTime() - start;
+            Runtime runtime = Runtime.getRuntime();
+            System.out.println(TextColor.PURPLE + graph.getTaskCount() + TextColor.RESET + " tasks, "
+                    + TextColor.PURPLE + graph.getEdgeCount() + TextColor.RESET + " edges, " + (reopen ? "opened" : "built") + " in " + (elapsed / 1_000_000) + " ms, heap used "
+                    + ((runtime.totalMemory() - runtime.freeMemory()) >> 20) + " MB");
+            if (graph.hasCycle() || graph.hasNegativeDuration()) {
+                System.out.println(TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET
+                        + (graph.hasCycle() ? "" : ": it has a negative duration"));
+                return;
+            }
+            long[] path = graph.getCriticalPath();
+            System.out.println("Project duration: " + TextColor.YELLOW + graph.getProjectDuration() + TextColor.RESET
+                    + ", critical path of " + path.length + " tasks");
+            if (!temporary && !reopen) {
+                graph.force();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Int and long arrays laid out one after the other in a memory-mapped file, outside the Java heap.
+// The file grows as sections are added and pages are only written back by the OS, so the arrays can be
+// larger than the heap and the GC never scans them. A MappedByteBuffer stops at 2 GB, so each section is
+// split in windows of 2^28 elements. Values are little endian like graph snapshots, sections start on
+// 8-byte boundaries: reopening a file and adding the same sections in the same order finds the same data.
+// A reopened file never grows: a section past its end is an error, so a truncated file is not padded with zeros.
+
+public class MappedStorage implements AutoCloseable {
+    private static final int WINDOW_SHIFT = 28;
+    private static final int WINDOW_MASK = (1 << WINDOW_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private long end;
+    // Size of a reopened file, sections cannot go past it. -1 when the file grows with the sections
+    private final long limit;
+
+    // temporary: the file is deleted when the storage is closed
+    public MappedStorage(Path file, boolean truncate, boolean temporary) throws IOException {
+        if (temporary) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+        } else if (truncate) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        limit = truncate || temporary ? -1 : channel.size();
+    }
+
+    // Bytes taken so far by the sections, padding included
+    public long end() {
+        return end;
+    }
+
+    public long fileSize() throws IOException {
+        return channel.size();
+    }
+
+    public Ints ints(int length) throws IOException {
+        MappedByteBuffer[] buffers = map(length, Integer.BYTES);
+        IntBuffer[] windows = new IntBuffer[buffers.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = buffers[i].asIntBuffer();
+        }
+        return new Ints(windows, length);
+    }
+
+    public Longs longs(int length) throws IOException {
+        MappedByteBuffer[] buffers = map(length, Long.BYTES);
+        LongBuffer[] windows = new LongBuffer[buffers.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = buffers[i].asLongBuffer();
+        }
+        return new Longs(windows, length);
+    }
+
+    private MappedByteBuffer[] map(int length, int elementBytes) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative section length " + length);
+        }
+        int count = Math.max(1, (int) (((long) length + WINDOW_MASK) >>> WINDOW_SHIFT));
+        MappedByteBuffer[] windows = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long bytes = Math.min((long) length - ((long) i << WINDOW_SHIFT), 1L << WINDOW_SHIFT) * elementBytes;
+            if (limit >= 0 && end + bytes > limit) {
+                throw new IOException("Truncated storage file: a section ends at byte " + (end + bytes) + " of " + limit);
+            }
+            windows[i] = channel.map(FileChannel.MapMode.READ_WRITE, end, bytes);
+            windows[i].order(ByteOrder.LITTLE_ENDIAN);
+            end += bytes;
+        }
+        end = (end + 7) & ~7L;
+        return windows;
+    }
+
+    // Writes the pages still in memory back to the file
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static final class Ints implements IntArray {
+        private final IntBuffer[] windows;
+        private final int length;
+
+        private Ints(IntBuffer[] windows, int length) {
+            this.windows = windows;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public int get(int index) {
+            return windows[index >>> WINDOW_SHIFT].get(index & WINDOW_MASK);
+        }
+
+        @Override
+        public void set(int index, int value) {
+            windows[index >>> WINDOW_SHIFT].put(index & WINDOW_MASK, value);
+        }
+    }
+
+    public static final class Longs implements LongArray {
+        private final LongBuffer[] windows;
+        private final int length;
+
+        private Longs(LongBuffer[] windows, int length) {
+            this.windows = windows;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public long get(int index) {
+            return windows[index >>> WINDOW_SHIFT].get(index & WINDOW_MASK);
+        }
+
+        public void set(int index, long value) {
+            windows[index >>> WINDOW_SHIFT].put(index & WINDOW_MASK, value);
+        }
+    }
+}
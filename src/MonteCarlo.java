@@ -0,0 +1,305 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Monte Carlo PERT: task durations are drawn from triangular or beta-PERT distributions and the earliest time
+// recurrence is run once per draw, giving the distribution of the project duration and, for each task,
+// its criticality index (share of the draws in which it is on a critical path).
+// Draws are split in chunks run in parallel, each chunk with its own SplittableRandom split from the seed
+// and its own buffers: the loop over draws allocates nothing. Results only depend on the seed and the number of draws.
+//
+// Run with: java MonteCarlo <table> <distributions> [draws] [seed]
+// Each line of the distributions file is "id min mode max [triangular|pert]", unlisted tasks keep their duration.
+
+public class MonteCarlo {
+    public enum Shape { TRIANGULAR, PERT }
+
+    private static final int DRAWS_PER_CHUNK = 16 * 1024;
+
+    private final Graph graph;
+    // Vertices are renumbered in topological order once, so a forward pass reads the arrays front to back.
+    // Position k holds slot order[k], its predecessors are the positions predecessors[offsets[k] .. offsets[k + 1]]
+    private final int[] order;
+    private final int[] positionOf;
+    private final int[] offsets;
+    private final int[] predecessors;
+    // Distribution of each position, fixed durations have low == high
+    private final double[] low;
+    private final double[] mode;
+    private final double[] high;
+    private final boolean[] pert;
+    // Marsaglia-Tsang constants of the two gamma draws of a beta-PERT position
+    private final double[] alphaD;
+    private final double[] alphaC;
+    private final double[] betaD;
+    private final double[] betaC;
+
+    MonteCarlo(Graph graph) {
+        this.graph = graph;
+        order = graph.topology().order;
+        int size = order.length;
+        positionOf = new int[graph.size];
+        for (int k = 0; k < size; k++) {
+            positionOf[order[k]] = k;
+        }
+        offsets = new int[size + 1];
+        predecessors = new int[graph.predecessors.length];
+        for (int k = 0; k < size; k++) {
+            int v = order[k];
+            offsets[k + 1] = offsets[k];
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                predecessors[offsets[k + 1]++] = positionOf[graph.predecessors[i]];
+            }
+        }
+
+        low = new double[size];
+        mode = new double[size];
+        high = new double[size];
+        pert = new boolean[size];
+        alphaD = new double[size];
+        alphaC = new double[size];
+        betaD = new double[size];
+        betaC = new double[size];
+        for (int k = 0; k < size; k++) {
+            low[k] = mode[k] = high[k] = graph.durations[order[k]];
+        }
+    }
+
+    public void setDistribution(long id, Shape shape, double min, double mode, double max) {
+        int v = graph.slotOf(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        if (!(min <= mode && mode <= max)) {
+            throw new IllegalArgumentException("Invalid distribution for task " + id + ": min <= mode <= max expected, got " + min + ", " + mode + ", " + max);
+        }
+        if (min < 0) {
+            throw new IllegalArgumentException("Invalid distribution for task " + id + ": durations cannot be negative");
+        }
+        int k = positionOf[v];
+        this.low[k] = min;
+        this.mode[k] = mode;
+        this.high[k] = max;
+        this.pert[k] = shape == Shape.PERT;
+        if (max > min) {
+            // Beta-PERT: min + (max - min) * Beta(1 + 4 (mode - min) / (max - min), 1 + 4 (max - mode) / (max - min))
+            alphaD[k] = 1 + 4 * (mode - min) / (max - min) - 1.0 / 3;
+            alphaC[k] = 1 / Math.sqrt(9 * alphaD[k]);
+            betaD[k] = 1 + 4 * (max - mode) / (max - min) - 1.0 / 3;
+            betaC[k] = 1 / Math.sqrt(9 * betaD[k]);
+        }
+    }
+
+    // Reads "id min mode max [triangular|pert]" lines, the shape defaults to pert
+    public void loadDistributions(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] words = line.split("\\s+");
+            try {
+                Shape shape = words.length > 4 ? Shape.valueOf(words[4].toUpperCase()) : Shape.PERT;
+                setDistribution(Long.parseLong(words[0]), shape, Double.parseDouble(words[1]), Double.parseDouble(words[2]), Double.parseDouble(words[3]));
+            } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IllegalArgumentException(file + " line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public Result run(int draws, long seed) {
+        if (draws < 1) {
+            throw new IllegalArgumentException("At least one draw is needed, got " + draws);
+        }
+        int chunks = (draws + DRAWS_PER_CHUNK - 1) / DRAWS_PER_CHUNK;
+        // Split sequentially so the streams of each chunk do not depend on scheduling
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            randoms[chunk] = root.split();
+        }
+
+        double[] durations = new double[draws];
+        long[][] criticalCounts = new long[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int first = chunk * DRAWS_PER_CHUNK;
+            int last = Math.min(draws, first + DRAWS_PER_CHUNK);
+            criticalCounts[chunk] = simulate(randoms[chunk], durations, first, last);
+        });
+
+        long[] critical = new long[graph.size];
+        for (long[] counts : criticalCounts) {
+            for (int k = 0; k < order.length; k++) {
+                critical[order[k]] += counts[k];
+            }
+        }
+        Arrays.sort(durations);
+        return new Result(graph, durations, critical);
+    }
+
+    // Draws [first, last), writes each project duration in results and returns how often each position was critical
+    private long[] simulate(SplittableRandom random, double[] results, int first, int last) {
+        int size = order.length;
+        int omega = positionOf[graph.omega];
+        double[] start = new double[size];
+        double[] finish = new double[size];
+        boolean[] critical = new boolean[size];
+        long[] counts = new long[size];
+
+        for (int draw = first; draw < last; draw++) {
+            // Forward pass, durations drawn as the vertices are reached
+            for (int k = 0; k < size; k++) {
+                double earliest = 0;
+                for (int i = offsets[k]; i < offsets[k + 1]; i++) {
+                    earliest = Math.max(earliest, finish[predecessors[i]]);
+                }
+                start[k] = earliest;
+                finish[k] = earliest + sample(random, k);
+                critical[k] = false;
+            }
+            results[draw] = start[omega];
+
+            // Backward pass: a predecessor is critical when a critical vertex starts exactly at its end
+            critical[omega] = true;
+            for (int k = size - 1; k >= 0; k--) {
+                if (!critical[k]) {
+                    continue;
+                }
+                counts[k]++;
+                for (int i = offsets[k]; i < offsets[k + 1]; i++) {
+                    if (finish[predecessors[i]] == start[k]) {
+                        critical[predecessors[i]] = true;
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    private double sample(SplittableRandom random, int k) {
+        double a = low[k];
+        double b = high[k];
+        if (a == b) {
+            return a;
+        }
+        if (pert[k]) {
+            double x = gamma(random, alphaD[k], alphaC[k]);
+            double y = gamma(random, betaD[k], betaC[k]);
+            return a + (b - a) * x / (x + y);
+        }
+        double c = mode[k];
+        double u = random.nextDouble();
+        return u * (b - a) < c - a ? a + Math.sqrt(u * (b - a) * (c - a)) : b - Math.sqrt((1 - u) * (b - a) * (b - c));
+    }
+
+    // Marsaglia and Tsang's method for a shape of d + 1/3 >= 1, the squeeze test spares most logarithms
+    private static double gamma(SplittableRandom random, double d, double c) {
+        while (true) {
+            double x = random.nextGaussian();
+            double v = 1 + c * x;
+            if (v <= 0) {
+                continue;
+            }
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d - d * v + d * Math.log(v)) {
+                return d * v;
+            }
+        }
+    }
+
+    public static class Result {
+        private final Graph graph;
+        // Project durations of every draw, sorted
+        private final double[] durations;
+        private final long[] criticalCounts;
+
+        Result(Graph graph, double[] durations, long[] criticalCounts) {
+            this.graph = graph;
+            this.durations = durations;
+            this.criticalCounts = criticalCounts;
+        }
+
+        public int getDraws() {
+            return durations.length;
+        }
+
+        // Project duration not exceeded in the given share of the draws, e.g. 0.9 for P90
+        public double percentile(double p) {
+            if (p < 0 || p > 1) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1, got " + p);
+            }
+            int index = (int) Math.ceil(p * durations.length) - 1;
+            return durations[Math.max(index, 0)];
+        }
+
+        public double mean() {
+            double sum = 0;
+            for (double duration : durations) {
+                sum += duration;
+            }
+            return sum / durations.length;
+        }
+
+        public double standardDeviation() {
+            double mean = mean();
+            double sum = 0;
+            for (double duration : durations) {
+                sum += (duration - mean) * (duration - mean);
+            }
+            return Math.sqrt(sum / durations.length);
+        }
+
+        // Share of the draws in which the task was on a critical path
+        public double criticality(long id) {
+            int v = graph.slotOf(id);
+            if (v < 0) {
+                throw new IllegalArgumentException("Unknown task " + id);
+            }
+            return (double) criticalCounts[v] / durations.length;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TextColor.PURPLE).append(durations.length).append(TextColor.RESET).append(" draws, project duration: mean ")
+                    .append(TextColor.YELLOW).append(String.format("%.2f", mean())).append(TextColor.RESET)
+                    .append(", standard deviation ").append(String.format("%.2f", standardDeviation())).append("\n");
+            for (double p : new double[] {0.1, 0.5, 0.8, 0.9, 0.95, 0.99}) {
+                sb.append("P").append((int) Math.round(p * 100)).append("\t").append(TextColor.YELLOW)
+                        .append(String.format("%.2f", percentile(p))).append(TextColor.RESET).append("\n");
+            }
+            sb.append("Task\tCriticality\n");
+            for (int v = 0; v < graph.size; v++) {
+                if (v != graph.alpha && v != graph.omega) {
+                    sb.append(TextColor.CYAN).append(graph.ids[v]).append(TextColor.RESET).append("\t")
+                            .append(String.format("%.1f%%", 100.0 * criticalCounts[v] / durations.length)).append("\n");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java MonteCarlo <table> <distributions> [draws] [seed]");
+            return;
+        }
+        Graph graph = new Graph(args[0]);
+        MonteCarlo simulation = graph.getMonteCarlo();
+        simulation.loadDistributions(Path.of(args[1]));
+        int draws = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        long start = System.nanoTime();
+        Result result = simulation.run(draws, seed);
+        long elapsed = System.nanoTime() - start;
+        System.out.print(result);
+        System.out.println("Simulated in " + TextColor.PURPLE + (elapsed / 1_000_000) + TextColor.RESET + " ms");
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.stream.IntStream;
+
+// Level-synchronous earliest and latest time sweeps: vertices of one rank only depend on lower ranks
+// (resp. higher ranks), so a whole level is computed concurrently on the common ForkJoin pool and the end
+// of the level acts as a barrier. Narrow levels are not worth the fork and run sequentially.
+// Every vertex is computed by the same recurrence as the sequential sweep, so results are identical.
+
+public class ParallelSweep {
+    // Levels with fewer vertices than this are processed on the calling thread
+    static final int MIN_PARALLEL_WIDTH = 2048;
+
+    static void earliest(Graph graph, TopologicalOrder topology, int minParallelWidth) {
+        for (int level = 0; level < topology.levelCount; level++) {
+            int start = topology.levelOffsets[level];
+            int end = topology.levelOffsets[level + 1];
+            if (end - start < minParallelWidth) {
+                for (int i = start; i < end; i++) {
+                    earliest(graph, topology.order[i]);
+                }
+            } else {
+                IntStream.range(start, end).parallel().forEach(i -> earliest(graph, topology.order[i]));
+            }
+        }
+    }
+
+    static void latest(Graph graph, TopologicalOrder topology, int minParallelWidth) {
+        for (int level = topology.levelCount - 1; level >= 0; level--) {
+            int start = topology.levelOffsets[level];
+            int end = topology.levelOffsets[level + 1];
+            if (end - start < minParallelWidth) {
+                for (int i = start; i < end; i++) {
+                    latest(graph, topology.order[i]);
+                }
+            } else {
+                IntStream.range(start, end).parallel().forEach(i -> latest(graph, topology.order[i]));
+            }
+        }
+    }
+
+    private static void earliest(Graph graph, int v) {
+        // Source has no predecessors and starts at 0
+        int max = 0;
+        for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+            int predecessor = graph.predecessors[i];
+            int time = graph.earliestTimes[predecessor] + graph.durations[predecessor];
+            if (time > max) {
+                max = time;
+            }
+        }
+        graph.earliestTimes[v] = max;
+    }
+
+    private static void latest(Graph graph, int v) {
+        // Sink keeps its earliest time
+        if (graph.successorOffsets[v] == graph.successorOffsets[v + 1]) {
+            graph.latestTimes[v] = graph.earliestTimes[v];
+            return;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+            int time = graph.latestTimes[graph.successors[i]];
+            if (time < min) {
+                min = time;
+            }
+        }
+        graph.latestTimes[v] = min - graph.durations[v];
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Analysed graphs kept in memory, keyed by the SHA-256 of the constraint table, so that asking again for a table
+// that did not change costs a lookup instead of a parse and a full analysis.
+// Each file remembers its last modification time and size: while they are unchanged the file is not even read.
+// When they change the file is hashed again, and identical content under any name is still a hit.
+// Entries are evicted in least recently used order once their estimated size goes over the budget.
+// With a snapshot directory, every analysis is also written there under its hash, as a GraphSnapshot and the
+// report, so a table already analysed by an earlier run is loaded back instead of being parsed and analysed again.
+// Cached graphs are shared: callers must not edit them.
+
+public class ResultCache {
+    // graph is null when the table did not pass validation
+    public record Analysis(Graph graph, boolean schedulingGraph, byte[] report) {
+    }
+
+    public record Statistics(long hits, long misses, long loads, long evictions, int entries, long bytes) {
+        @Override
+        public String toString() {
+            return "Cache: " + TextColor.GREEN + hits + TextColor.RESET + " hits, " + TextColor.RED + misses + TextColor.RESET + " misses ("
+                    + loads + " loaded from snapshots), " + evictions + " evictions, " + entries + " entries, " + (bytes / 1024) + " KB";
+        }
+    }
+
+    private record FileState(long modified, long length, String hash) {
+    }
+
+    private record Entry(Analysis analysis, long bytes) {
+    }
+
+    // A MappedByteBuffer cannot exceed 2 GB, files are hashed through windows of 1 GB
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final long maxBytes;
+    // null when analyses are only kept in memory
+    private final Path snapshots;
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, FileState> files = new HashMap<>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long loads;
+    private long evictions;
+
+    public ResultCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public ResultCache(long maxBytes, Path snapshots) {
+        this.maxBytes = maxBytes;
+        this.snapshots = snapshots;
+    }
+
+    // Analysis of the table, with Main.analyse's output in the report
+    public synchronized Analysis analyse(String filepath) {
+        Path path = Path.of(filepath).toAbsolutePath().normalize();
+        String hash;
+        try {
+            hash = hash(filepath, path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Entry entry = entries.get(hash);
+        if (entry != null) {
+            hits++;
+            return entry.analysis();
+        }
+        misses++;
+
+        // Reports differ with the reduction and with the colours, both may change between runs
+        String key = hash + (Main.reduce() ? "-reduced" : "") + (TextColor.ENABLED ? "" : "-plain");
+        Analysis analysis = snapshots == null ? null : load(key);
+        if (analysis == null) {
+            analysis = compute(filepath);
+            if (snapshots != null) {
+                store(key, analysis);
+            }
+        } else {
+            loads++;
+        }
+        put(hash, new Entry(analysis, footprint(analysis)));
+        return analysis;
+    }
+
+    private static Analysis compute(String filepath) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+        TableValidator.Report validation;
+        try {
+            validation = TableValidator.validate(filepath);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // A table with errors is reported as a whole and not analysed, graph is then null
+        Graph graph = null;
+        boolean schedulingGraph = false;
+        if (validation.isValid()) {
+            graph = new Graph(filepath, validation.getTable(), Main.reduce());
+            schedulingGraph = Main.analyse(graph, out);
+            // The buffer is only the report, later displays of the cached graph go to the console
+            graph.setOutput(System.out);
+        } else {
+            out.print(validation);
+        }
+        out.flush();
+        return new Analysis(graph, schedulingGraph, buffer.toByteArray());
+    }
+
+    // Analysis written by an earlier run, null when there is none or it cannot be read
+    private Analysis load(String key) {
+        Path report = snapshots.resolve(key + ".report");
+        Path snapshot = snapshots.resolve(key + ".graph");
+        try {
+            if (!Files.exists(report)) {
+                return null;
+            }
+            // A table with errors has a report but no graph
+            Graph graph = Files.exists(snapshot) ? GraphSnapshot.read(snapshot) : null;
+            boolean schedulingGraph = graph != null && !graph.hasCycle(false) && !graph.hasNegativeDuration(false);
+            return new Analysis(graph, schedulingGraph, Files.readAllBytes(report));
+        } catch (IOException e) {
+            // Corrupted or truncated, analysed again and written over
+            return null;
+        }
+    }
+
+    // Files are written under temporary names and moved in place, a concurrent run never reads half of one
+    private void store(String key, Analysis analysis) {
+        try {
+            Files.createDirectories(snapshots);
+            if (analysis.graph() != null) {
+                Path temporary = Files.createTempFile(snapshots, key, ".tmp");
+                GraphSnapshot.write(analysis.graph(), temporary);
+                Files.move(temporary, snapshots.resolve(key + ".graph"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Path temporary = Files.createTempFile(snapshots, key, ".tmp");
+            Files.write(temporary, analysis.report());
+            Files.move(temporary, snapshots.resolve(key + ".report"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The analysis is still cached in memory, the next run computes it again
+        }
+    }
+
+    public synchronized void invalidate(String filepath) {
+        FileState state = files.remove(Path.of(filepath).toAbsolutePath().normalize());
+        if (state != null) {
+            Entry entry = entries.remove(state.hash());
+            if (entry != null) {
+                bytes -= entry.bytes();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        files.clear();
+        bytes = 0;
+    }
+
+    public synchronized Statistics statistics() {
+        return new Statistics(hits, misses, loads, evictions, entries.size(), bytes);
+    }
+
+    private void put(String hash, Entry entry) {
+        entries.put(hash, entry);
+        bytes += entry.bytes();
+
+        // Keep at least the newest entry, even when it is over the budget on its own
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private String hash(String filepath, Path path) throws IOException {
+        // Opened like TableParser does, a missing table gives the same error whether it is cached or not
+        try (FileInputStream in = new FileInputStream(filepath); FileChannel channel = in.getChannel()) {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            FileState state = files.get(path);
+            if (state != null && state.modified() == modified && state.length() == attributes.size()) {
+                return state.hash();
+            }
+
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_BYTES) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, size - position)));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            String hash = hex.toString();
+            files.put(path, new FileState(modified, size, hash));
+            return hash;
+        }
+    }
+
+    // Estimated heap taken by the arrays of the graph, its topological order and the report
+    private static long footprint(Analysis analysis) {
+        Graph graph = analysis.graph();
+        if (graph == null) {
+            return analysis.report().length;
+        }
+        long vertices = graph.size;
+        long edges = graph.predecessors.length;
+        // ids, durations, ranks, both times, both offset arrays and the three topological order arrays
+        long perVertex = Long.BYTES + 10L * Integer.BYTES;
+        return vertices * perVertex + edges * 2L * Integer.BYTES + analysis.report().length;
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+// What-if analysis of several duration scenarios on one graph structure: every scenario starts from the durations
+// of the graph, tasks are then given other durations per scenario, and a single pair of sweeps computes the
+// earliest times, latest times and floats of all scenarios. Later edits of the graph structure are not seen.
+// Values are stored scenario-minor, vertex v of scenario s at [position(v) * S + s] with vertices in topological
+// order, so each edge costs one max (or min) over S contiguous ints, a loop the JIT compiles to SIMD instructions.
+
+public class ScenarioSet {
+    private final Graph graph;
+    private final int scenarios;
+    // Topological position of each slot, and the edges between positions in compressed sparse row arrays
+    private final int[] positionOf;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+    private final int[] successorOffsets;
+    private final int[] successors;
+
+    private final int[] durations;
+    private final int[] earliestTimes;
+    // Earliest time + duration, so the forward sweep reads one row per predecessor
+    private final int[] finishTimes;
+    private final int[] latestTimes;
+    private boolean evaluated;
+
+    ScenarioSet(Graph graph, int scenarios) {
+        if (scenarios < 1) {
+            throw new IllegalArgumentException("At least one scenario is needed, got " + scenarios);
+        }
+        this.graph = graph;
+        this.scenarios = scenarios;
+
+        int[] order = graph.topology().order;
+        int size = order.length;
+        positionOf = new int[graph.size];
+        for (int k = 0; k < size; k++) {
+            positionOf[order[k]] = k;
+        }
+        predecessorOffsets = new int[size + 1];
+        predecessors = new int[graph.predecessors.length];
+        successorOffsets = new int[size + 1];
+        successors = new int[graph.successors.length];
+        for (int k = 0; k < size; k++) {
+            int v = order[k];
+            predecessorOffsets[k + 1] = predecessorOffsets[k];
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                predecessors[predecessorOffsets[k + 1]++] = positionOf[graph.predecessors[i]];
+            }
+            successorOffsets[k + 1] = successorOffsets[k];
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                successors[successorOffsets[k + 1]++] = positionOf[graph.successors[i]];
+            }
+        }
+
+        long values = (long) size * scenarios;
+        if (values > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many scenarios for " + size + " vertices: " + scenarios);
+        }
+        durations = new int[(int) values];
+        earliestTimes = new int[(int) values];
+        finishTimes = new int[(int) values];
+        latestTimes = new int[(int) values];
+        for (int k = 0; k < size; k++) {
+            Arrays.fill(durations, k * scenarios, (k + 1) * scenarios, graph.durations[order[k]]);
+        }
+    }
+
+    public int getScenarioCount() {
+        return scenarios;
+    }
+
+    public void setDuration(int scenario, long id, int duration) {
+        durations[index(scenario, task(id))] = duration;
+        evaluated = false;
+    }
+
+    public int getDuration(int scenario, long id) {
+        return durations[index(scenario, task(id))];
+    }
+
+    // Computes the times of every scenario, called again after durations change
+    public void evaluate() {
+        int size = predecessorOffsets.length - 1;
+        int s = scenarios;
+
+        // Rows are accumulated in a separate array: the JIT only vectorizes loops whose stores cannot overlap their loads
+        int[] row = new int[s];
+
+        // Forward sweep: earliest time is the max over predecessors of their earliest time + duration, 0 for the source
+        for (int k = 0; k < size; k++) {
+            Arrays.fill(row, 0);
+            for (int i = predecessorOffsets[k]; i < predecessorOffsets[k + 1]; i++) {
+                int from = predecessors[i] * s;
+                for (int j = 0; j < s; j++) {
+                    row[j] = Math.max(row[j], finishTimes[from + j]);
+                }
+            }
+            int to = k * s;
+            System.arraycopy(row, 0, earliestTimes, to, s);
+            for (int j = 0; j < s; j++) {
+                finishTimes[to + j] = row[j] + durations[to + j];
+            }
+        }
+
+        // Backward sweep: latest time is the min over successors of their latest time, minus the duration
+        for (int k = size - 1; k >= 0; k--) {
+            int to = k * s;
+            if (successorOffsets[k] == successorOffsets[k + 1]) {
+                System.arraycopy(earliestTimes, to, latestTimes, to, s);
+                continue;
+            }
+            Arrays.fill(row, Integer.MAX_VALUE);
+            for (int i = successorOffsets[k]; i < successorOffsets[k + 1]; i++) {
+                int from = successors[i] * s;
+                for (int j = 0; j < s; j++) {
+                    row[j] = Math.min(row[j], latestTimes[from + j]);
+                }
+            }
+            for (int j = 0; j < s; j++) {
+                latestTimes[to + j] = row[j] - durations[to + j];
+            }
+        }
+        evaluated = true;
+    }
+
+    public int getProjectDuration(int scenario) {
+        return earliestTimes[evaluatedIndex(scenario, graph.omega)];
+    }
+
+    public int getEarliestTime(int scenario, long id) {
+        return earliestTimes[evaluatedIndex(scenario, task(id))];
+    }
+
+    public int getLatestTime(int scenario, long id) {
+        return latestTimes[evaluatedIndex(scenario, task(id))];
+    }
+
+    public int getFloat(int scenario, long id) {
+        int i = evaluatedIndex(scenario, task(id));
+        return latestTimes[i] - earliestTimes[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Scenario\tDuration\tCritical tasks\n");
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            int critical = 0;
+            for (int v = 0; v < graph.size; v++) {
+                int i = evaluatedIndex(scenario, v);
+                if (v != graph.alpha && v != graph.omega && latestTimes[i] == earliestTimes[i]) {
+                    critical++;
+                }
+            }
+            sb.append(scenario).append("\t\t").append(TextColor.YELLOW).append(getProjectDuration(scenario)).append(TextColor.RESET)
+                    .append("\t\t").append(critical).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private int index(int scenario, int slot) {
+        if (scenario < 0 || scenario >= scenarios) {
+            throw new IllegalArgumentException("Unknown scenario " + scenario + ", there are " + scenarios);
+        }
+        return positionOf[slot] * scenarios + scenario;
+    }
+
+    private int evaluatedIndex(int scenario, int slot) {
+        if (!evaluated) {
+            throw new IllegalStateException("Scenarios changed since the last evaluation");
+        }
+        return index(scenario, slot);
+    }
+
+    private int task(long id) {
+        int v = graph.slotOf(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task " + id);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,63 @@
+// Outcome of an incremental edit: tasks whose total float changed and moves on or off the critical path
+
+public class ScheduleChange {
+    private final long[] floatChanged;
+    private final long[] becameCritical;
+    private final long[] leftCritical;
+    private final int verticesVisited;
+
+    ScheduleChange(long[] floatChanged, long[] becameCritical, long[] leftCritical, int verticesVisited) {
+        this.floatChanged = floatChanged;
+        this.becameCritical = becameCritical;
+        this.leftCritical = leftCritical;
+        this.verticesVisited = verticesVisited;
+    }
+
+    public long[] getFloatChanged() {
+        return floatChanged.clone();
+    }
+
+    public long[] getBecameCritical() {
+        return becameCritical.clone();
+    }
+
+    public long[] getLeftCritical() {
+        return leftCritical.clone();
+    }
+
+    // Number of vertices whose times were re-evaluated, i.e. the size of the affected cone
+    public int getVerticesVisited() {
+        return verticesVisited;
+    }
+
+    public boolean criticalPathChanged() {
+        return becameCritical.length > 0 || leftCritical.length > 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Float changed: ").append(TextColor.PURPLE);
+        appendIds(sb, floatChanged);
+        sb.append(TextColor.RESET).append("\n");
+        sb.append("Now critical: ").append(TextColor.RED);
+        appendIds(sb, becameCritical);
+        sb.append(TextColor.RESET).append("\n");
+        sb.append("No longer critical: ").append(TextColor.GREEN);
+        appendIds(sb, leftCritical);
+        sb.append(TextColor.RESET);
+        return sb.toString();
+    }
+
+    private static void appendIds(StringBuilder sb, long[] ids) {
+        if (ids.length == 0) {
+            sb.append("None");
+        }
+        for (int i = 0; i < ids.length; i++) {
+            sb.append(ids[i]);
+            if (i != ids.length - 1) {
+                sb.append(", ");
+            }
+        }
+    }
+}
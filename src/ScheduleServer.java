@@ -0,0 +1,343 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Long-running analysis service on localhost, run with: java ScheduleServer [port]
+// Graphs stay in memory between requests, so a query costs a lookup and an edit only the incremental update.
+//   PUT    /graphs/<name>         body: a constraint table           -> schedule, or 400 with every error of the table
+//   GET    /graphs/<name>                                            -> schedule
+//   POST   /graphs/<name>/edits   body: one edit per line            -> one change per edit, duration and critical path
+//   DELETE /graphs/<name>
+// Edits: "duration <id> <duration>", "add <id> <predecessor>", "remove <id> <predecessor>", "task <id> <duration> <predecessors...>"
+// Edits of a request are applied in order, an invalid edit fails the request and leaves the earlier ones applied.
+// Concurrent requests for the same graph are batched: the first one to arrive applies every request queued
+// behind it in arrival order, and all reads of the batch share one rendering of the schedule.
+
+public class ScheduleServer {
+    static final int DEFAULT_PORT = 8765;
+
+    // One queued request: edits to apply (empty for a read) and where to send the answer
+    private record Request(String[] edits, CompletableFuture<String> answer) {
+    }
+
+    private static class Session {
+        final String name;
+        final Graph graph;
+        final ArrayDeque<Request> queue = new ArrayDeque<>();
+        boolean draining;
+        // Schedule rendered for the current state of the graph, null after an edit
+        String schedule;
+
+        Session(String name, Graph graph) {
+            this.name = name;
+            this.graph = graph;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ScheduleServer(int port) throws IOException {
+        // Without it small answers wait for the delayed ACK of the client, about 40 ms each
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/graphs/", this::handle);
+        executor = newExecutor();
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ScheduleServer server = new ScheduleServer(port);
+        server.start();
+        System.out.println("Listening on " + TextColor.CYAN + "http://localhost:" + server.getPort() + "/graphs/" + TextColor.RESET);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().substring("/graphs/".length()).split("/");
+            String name = path[0];
+            String method = exchange.getRequestMethod();
+            try {
+                if (name.isEmpty() || path.length > 2 || path.length == 2 && !path[1].equals("edits")) {
+                    send(exchange, 404, error("Unknown resource " + exchange.getRequestURI().getPath()));
+                } else if (path.length == 2) {
+                    if (allowed(exchange, method, "POST")) {
+                        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                        send(exchange, 200, submit(name, body.lines().map(String::trim).filter(line -> !line.isEmpty()).toArray(String[]::new)));
+                    }
+                } else if (method.equals("PUT")) {
+                    // A table with errors is not stored, every error is sent back with its line
+                    TableValidator.Report validation = TableValidator.validate(name, exchange.getRequestBody().readAllBytes());
+                    if (validation.isValid()) {
+                        sessions.put(name, new Session(name, new Graph(name, validation.getTable())));
+                        send(exchange, 200, submit(name, new String[0]));
+                    } else {
+                        send(exchange, 400, errors(name, validation.getErrors()));
+                    }
+                } else if (method.equals("DELETE")) {
+                    if (sessions.remove(name) == null) {
+                        throw new NoSuchElementException("Unknown graph " + name);
+                    }
+                    send(exchange, 200, "{\"deleted\":" + quote(name) + "}");
+                } else if (allowed(exchange, method, "GET")) {
+                    send(exchange, 200, submit(name, new String[0]));
+                }
+            } catch (NoSuchElementException e) {
+                send(exchange, 404, error(e.getMessage()));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                send(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                // Anything else is a bug on this side, the client still gets an answer
+                send(exchange, 500, error(e.toString()));
+            }
+        }
+    }
+
+    private String submit(String name, String[] edits) {
+        Session session = sessions.get(name);
+        if (session == null) {
+            throw new NoSuchElementException("Unknown graph " + name);
+        }
+        Request request = new Request(edits, new CompletableFuture<>());
+        boolean drain;
+        synchronized (session) {
+            session.queue.add(request);
+            drain = !session.draining;
+            session.draining = true;
+        }
+        if (drain) {
+            drain(session);
+        }
+        try {
+            return request.answer().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Answers queued requests until the queue stays empty, one batch at a time
+    private void drain(Session session) {
+        while (true) {
+            List<Request> batch;
+            synchronized (session) {
+                if (session.queue.isEmpty()) {
+                    session.draining = false;
+                    return;
+                }
+                batch = new ArrayList<>(session.queue);
+                session.queue.clear();
+            }
+            for (Request request : batch) {
+                try {
+                    StringBuilder changes = new StringBuilder();
+                    for (String edit : request.edits()) {
+                        changes.append(changes.length() == 0 ? "" : ",").append(apply(session, edit));
+                    }
+                    if (request.edits().length == 0) {
+                        if (session.schedule == null) {
+                            session.schedule = schedule(session);
+                        }
+                        request.answer().complete(session.schedule);
+                    } else {
+                        StringBuilder json = new StringBuilder();
+                        json.append("{\"changes\":[").append(changes).append("]");
+                        json.append(",\"projectDuration\":").append(session.graph.getProjectDuration());
+                        json.append(",\"criticalPath\":");
+                        appendArray(json, session.graph.getCriticalPath());
+                        request.answer().complete(json.append("}").toString());
+                    }
+                } catch (RuntimeException e) {
+                    request.answer().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private String apply(Session session, String edit) {
+        String[] words = edit.split("\\s+");
+        Graph graph = session.graph;
+        ScheduleChange change;
+        try {
+            switch (words[0]) {
+                case "duration" -> change = graph.updateDuration(Long.parseLong(words[1]), Integer.parseInt(words[2]));
+                case "add" -> change = graph.addPredecessor(Long.parseLong(words[1]), Long.parseLong(words[2]));
+                case "remove" -> change = graph.removePredecessor(Long.parseLong(words[1]), Long.parseLong(words[2]));
+                case "task" -> {
+                    long[] predecessors = new long[words.length - 3];
+                    for (int i = 3; i < words.length; i++) {
+                        predecessors[i - 3] = Long.parseLong(words[i]);
+                    }
+                    change = graph.addTask(Long.parseLong(words[1]), Integer.parseInt(words[2]), predecessors);
+                }
+                default -> throw new IllegalArgumentException("Unknown edit '" + edit + "'");
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed edit '" + edit + "'");
+        }
+        session.schedule = null;
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"edit\":").append(quote(edit));
+        json.append(",\"floatChanged\":");
+        appendArray(json, change.getFloatChanged());
+        json.append(",\"becameCritical\":");
+        appendArray(json, change.getBecameCritical());
+        json.append(",\"leftCritical\":");
+        appendArray(json, change.getLeftCritical());
+        json.append(",\"verticesVisited\":").append(change.getVerticesVisited()).append("}");
+        return json.toString();
+    }
+
+    private static String schedule(Session session) {
+        Graph graph = session.graph;
+        StringBuilder json = new StringBuilder();
+        json.append("{\"name\":").append(quote(session.name));
+        json.append(",\"tasks\":").append(graph.size - 2);
+
+        List<CycleFinder.Component> cycles = graph.findCycles();
+        boolean schedulingGraph = cycles.isEmpty() && !graph.hasNegativeDuration(false);
+        json.append(",\"schedulingGraph\":").append(schedulingGraph);
+        if (!cycles.isEmpty()) {
+            json.append(",\"cycles\":[");
+            for (int i = 0; i < cycles.size(); i++) {
+                json.append(i == 0 ? "" : ",");
+                appendArray(json, cycles.get(i).cycle());
+            }
+            json.append("]}");
+            return json.toString();
+        }
+
+        json.append(",\"projectDuration\":").append(graph.getProjectDuration());
+        json.append(",\"criticalPath\":");
+        appendArray(json, graph.getCriticalPath());
+        json.append(",\"vertices\":[");
+        for (int v = 0; v < graph.size; v++) {
+            // Alpha and omega are not tasks, they have a null id and their own role
+            json.append(v == 0 ? "" : ",").append("{\"id\":");
+            if (graph.isTask(v)) {
+                json.append(graph.ids[v]).append(",\"role\":\"task\"");
+            } else {
+                json.append("null,\"role\":\"").append(v == graph.alpha ? "alpha" : "omega").append("\"");
+            }
+            json.append(",\"duration\":").append(graph.durations[v])
+                    .append(",\"rank\":").append(graph.ranks[v])
+                    .append(",\"earliest\":").append(graph.earliestTimes[v])
+                    .append(",\"latest\":").append(graph.latestTimes[v])
+                    .append(",\"float\":").append(graph.latestTimes[v] - graph.earliestTimes[v])
+                    .append("}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    // Answers 405 when the method is not the expected one
+    private static boolean allowed(HttpExchange exchange, String method, String expected) throws IOException {
+        if (method.equals(expected)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", expected);
+        send(exchange, 405, error("Method " + method + " not allowed here"));
+        return false;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(String.valueOf(message)) + "}";
+    }
+
+    private static String errors(String name, List<TableValidator.LineError> errors) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"error\":").append(quote("Constraint table " + name + " has " + errors.size() + (errors.size() == 1 ? " error" : " errors")));
+        json.append(",\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            TableValidator.LineError error = errors.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"line\":").append(error.line()).append(",\"message\":").append(quote(error.message())).append("}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendArray(StringBuilder json, long[] values) {
+        json.append("[");
+        for (int i = 0; i < values.length; i++) {
+            json.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        json.append("]");
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static ExecutorService newExecutor() {
+        // Virtual threads when the runtime provides them (Java 21+), otherwise threads are created as needed:
+        // requests mostly wait on their batch, a pool sized by cores would keep them from being batched
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+// Re-propagates earliest times forward and latest times backward from the vertices an edit touched.
+// Vertices are visited in rank order through a heap, so each one is settled once and the walk stops
+// wherever a recomputed time comes out unchanged: only the affected cone of the graph is visited.
+// Edits that change edges first bring the ranks up to date the same way, since the heap is ordered by them.
+
+public class ScheduleUpdater {
+    // Marks old floats of vertices that did not exist before the edit
+    private static final int NEW_VERTEX = Integer.MIN_VALUE;
+
+    private final Graph graph;
+    private final LongHeap heap;
+
+    // A vertex is queued during the current pass (resp. touched during the current update) when its mark
+    // equals the matching epoch, which saves clearing the marks between edits
+    private int[] queuedMarks;
+    private int[] touchedMarks;
+    private int queuedEpoch;
+    private int touchedEpoch;
+
+    private final IntList touched = new IntList();
+    private final IntList oldFloats = new IntList();
+    private final IntList sinks = new IntList();
+    private int visited;
+
+    ScheduleUpdater(Graph graph) {
+        this.graph = graph;
+        this.heap = new LongHeap(64);
+        this.queuedMarks = new int[graph.size];
+        this.touchedMarks = new int[graph.size];
+    }
+
+    // Vertices added since the updater was created get marks too, the arrays grow by half at least
+    void ensureCapacity(int size) {
+        if (size > queuedMarks.length) {
+            int capacity = Math.max(size, queuedMarks.length + (queuedMarks.length >> 1));
+            queuedMarks = Arrays.copyOf(queuedMarks, capacity);
+            touchedMarks = Arrays.copyOf(touchedMarks, capacity);
+        }
+    }
+
+    // Recomputes the ranks of the seeds, vertices whose predecessors changed, and of the successors of every
+    // rank that moved. Popped by their rank before the edit: predecessors always come out before their successors
+    void updateRanks(IntList seeds) {
+        queuedEpoch++;
+        for (int i = 0; i < seeds.size(); i++) {
+            enqueue(seeds.get(i), graph.ranks[seeds.get(i)]);
+        }
+
+        while (!heap.isEmpty()) {
+            int v = (int) heap.pop();
+            int rank = 0;
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                rank = Math.max(rank, graph.ranks[graph.predecessors[i]] + 1);
+            }
+            if (rank == graph.ranks[v]) {
+                continue;
+            }
+            graph.ranks[v] = rank;
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                enqueue(graph.successors[i], graph.ranks[graph.successors[i]]);
+            }
+        }
+    }
+
+    // Whether to is a descendant of from. A path only goes up in rank, vertices ranked at or above to are not explored
+    boolean reaches(int from, int to) {
+        queuedEpoch++;
+        IntList stack = new IntList();
+        stack.add(from);
+        queuedMarks[from] = queuedEpoch;
+        while (!stack.isEmpty()) {
+            int v = stack.get(stack.size() - 1);
+            stack.truncate(stack.size() - 1);
+            if (v == to) {
+                return true;
+            }
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                int successor = graph.successors[i];
+                if (queuedMarks[successor] != queuedEpoch && (successor == to || graph.ranks[successor] < graph.ranks[to])) {
+                    queuedMarks[successor] = queuedEpoch;
+                    stack.add(successor);
+                }
+            }
+        }
+        return false;
+    }
+
+    ScheduleChange propagate(IntList forwardSeeds, IntList backwardSeeds, IntList addedSlots) {
+        touchedEpoch++;
+        touched.clear();
+        oldFloats.clear();
+        sinks.clear();
+        visited = 0;
+
+        for (int i = 0; i < addedSlots.size(); i++) {
+            int v = addedSlots.get(i);
+            touchedMarks[v] = touchedEpoch;
+            touched.add(v);
+            oldFloats.add(NEW_VERTEX);
+        }
+
+        propagateEarliest(forwardSeeds);
+        propagateLatest(backwardSeeds);
+
+        return report();
+    }
+
+    private void propagateEarliest(IntList seeds) {
+        queuedEpoch++;
+        for (int i = 0; i < seeds.size(); i++) {
+            enqueue(seeds.get(i), graph.ranks[seeds.get(i)]);
+        }
+
+        while (!heap.isEmpty()) {
+            int v = (int) heap.pop();
+            visited++;
+
+            // Same recurrence as computeEarliestTime
+            int max = 0;
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                int predecessor = graph.predecessors[i];
+                max = Math.max(max, graph.earliestTimes[predecessor] + graph.durations[predecessor]);
+            }
+            if (max == graph.earliestTimes[v]) {
+                continue;
+            }
+
+            touch(v);
+            graph.earliestTimes[v] = max;
+            if (graph.successorOffsets[v] == graph.successorOffsets[v + 1]) {
+                // The latest time of a sink follows its earliest time
+                sinks.add(v);
+            }
+            for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                enqueue(graph.successors[i], graph.ranks[graph.successors[i]]);
+            }
+        }
+    }
+
+    private void propagateLatest(IntList seeds) {
+        queuedEpoch++;
+
+        // Highest ranks first
+        int maxRank = 0;
+        for (int i = 0; i < seeds.size(); i++) {
+            maxRank = Math.max(maxRank, graph.ranks[seeds.get(i)]);
+        }
+        for (int i = 0; i < sinks.size(); i++) {
+            maxRank = Math.max(maxRank, graph.ranks[sinks.get(i)]);
+        }
+        for (int i = 0; i < seeds.size(); i++) {
+            enqueue(seeds.get(i), maxRank - graph.ranks[seeds.get(i)]);
+        }
+        for (int i = 0; i < sinks.size(); i++) {
+            enqueue(sinks.get(i), maxRank - graph.ranks[sinks.get(i)]);
+        }
+
+        while (!heap.isEmpty()) {
+            int v = (int) heap.pop();
+            visited++;
+
+            // Same recurrence as computeLatestTime
+            int latest;
+            if (graph.successorOffsets[v] == graph.successorOffsets[v + 1]) {
+                latest = graph.earliestTimes[v];
+            } else {
+                int min = Integer.MAX_VALUE;
+                for (int i = graph.successorOffsets[v]; i < graph.successorOffsets[v + 1]; i++) {
+                    min = Math.min(min, graph.latestTimes[graph.successors[i]]);
+                }
+                latest = min - graph.durations[v];
+            }
+            if (latest == graph.latestTimes[v]) {
+                continue;
+            }
+
+            touch(v);
+            graph.latestTimes[v] = latest;
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                enqueue(graph.predecessors[i], maxRank - graph.ranks[graph.predecessors[i]]);
+            }
+        }
+    }
+
+    private void enqueue(int v, int priority) {
+        if (queuedMarks[v] != queuedEpoch) {
+            queuedMarks[v] = queuedEpoch;
+            heap.push(((long) priority << 32) | v);
+        }
+    }
+
+    private void touch(int v) {
+        // Remember the float a vertex had before its first change
+        if (touchedMarks[v] != touchedEpoch) {
+            touchedMarks[v] = touchedEpoch;
+            touched.add(v);
+            oldFloats.add(graph.latestTimes[v] - graph.earliestTimes[v]);
+        }
+    }
+
+    private ScheduleChange report() {
+        LongList floatChanged = new LongList();
+        LongList becameCritical = new LongList();
+        LongList leftCritical = new LongList();
+        for (int i = 0; i < touched.size(); i++) {
+            int v = touched.get(i);
+            int oldFloat = oldFloats.get(i);
+            int newFloat = graph.latestTimes[v] - graph.earliestTimes[v];
+            // Alpha and omega have no id to report
+            if (newFloat == oldFloat || !graph.isTask(v)) {
+                continue;
+            }
+            floatChanged.add(graph.ids[v]);
+            if (newFloat == 0) {
+                becameCritical.add(graph.ids[v]);
+            } else if (oldFloat == 0) {
+                leftCritical.add(graph.ids[v]);
+            }
+        }
+        return new ScheduleChange(floatChanged.toArray(), becameCritical.toArray(), leftCritical.toArray(), visited);
+    }
+}
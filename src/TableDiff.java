@@ -0,0 +1,115 @@
+import java.util.Arrays;
+
+// Differences between a graph and a new version of its constraint table, matched by task id:
+// durations that changed, predecessors added or removed, tasks added or removed.
+// Built in O(V + E) with per-slot marks, nothing is allocated per task.
+
+public class TableDiff {
+    final ConstraintTable table;
+    // Tasks whose duration changed, with their new duration
+    final LongList changedDurations = new LongList();
+    final IntList newDurations = new IntList();
+    private int addedTasks;
+    private int removedTasks;
+    private int addedPredecessors;
+    private int removedPredecessors;
+
+    private TableDiff(ConstraintTable table) {
+        this.table = table;
+    }
+
+    public static TableDiff between(Graph graph, ConstraintTable table) {
+        TableDiff diff = new TableDiff(table);
+        // Row of the new table holding each task of the graph, -1 while none does
+        int[] rowOf = new int[graph.size];
+        Arrays.fill(rowOf, -1);
+        // Old predecessors of the task being compared are marked with its row, those found again in the new row with ~row
+        int[] marks = new int[graph.size];
+        Arrays.fill(marks, Integer.MIN_VALUE);
+
+        for (int row = 0; row < table.rows(); row++) {
+            int v = task(graph, table.id(row));
+            if (v < 0) {
+                diff.addedTasks++;
+                continue;
+            }
+            if (rowOf[v] >= 0) {
+                throw new IllegalArgumentException("Vertex " + table.id(row) + " is defined twice");
+            }
+            rowOf[v] = row;
+            if (graph.durations[v] != table.duration(row)) {
+                diff.changedDurations.add(table.id(row));
+                diff.newDurations.add(table.duration(row));
+            }
+
+            int oldCount = 0;
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                if (graph.predecessors[i] != graph.alpha) {
+                    marks[graph.predecessors[i]] = row;
+                    oldCount++;
+                }
+            }
+            int kept = 0;
+            for (int i = table.predecessorStart(row); i < table.predecessorEnd(row); i++) {
+                int predecessor = task(graph, table.predecessor(i));
+                if (predecessor >= 0 && marks[predecessor] == row) {
+                    kept++;
+                    marks[predecessor] = ~row;
+                } else if (predecessor < 0 || marks[predecessor] != ~row) {
+                    diff.addedPredecessors++;
+                    if (predecessor >= 0) {
+                        marks[predecessor] = ~row;
+                    }
+                }
+            }
+            diff.removedPredecessors += oldCount - kept;
+        }
+
+        for (int v = 0; v < graph.size; v++) {
+            if (v != graph.alpha && v != graph.omega && rowOf[v] < 0) {
+                diff.removedTasks++;
+            }
+        }
+        return diff;
+    }
+
+    // Whether edges or tasks changed, as opposed to durations only
+    public boolean isStructural() {
+        return addedTasks + removedTasks + addedPredecessors + removedPredecessors > 0;
+    }
+
+    public boolean isEmpty() {
+        return !isStructural() && changedDurations.isEmpty();
+    }
+
+    public int getChangedDurations() {
+        return changedDurations.size();
+    }
+
+    public int getAddedTasks() {
+        return addedTasks;
+    }
+
+    public int getRemovedTasks() {
+        return removedTasks;
+    }
+
+    public int getAddedPredecessors() {
+        return addedPredecessors;
+    }
+
+    public int getRemovedPredecessors() {
+        return removedPredecessors;
+    }
+
+    @Override
+    public String toString() {
+        return changedDurations.size() + " durations changed, "
+                + addedPredecessors + " predecessors added, " + removedPredecessors + " removed, "
+                + addedTasks + " tasks added, " + removedTasks + " removed";
+    }
+
+    private static int task(Graph graph, long id) {
+        return graph.slotOf(id);
+    }
+}
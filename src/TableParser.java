@@ -0,0 +1,230 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Reads constraint tables straight from a memory-mapped file: bytes are tokenized into primitive lists,
+// no String is created per line. Tokens may be separated by any run of spaces or tabs, blank lines are skipped.
+// Large files are split at line boundaries and the chunks are parsed in parallel.
+
+public class TableParser {
+    // Files bigger than one chunk are parsed in parallel by default
+    static final int CHUNK_SIZE = 16 * 1024 * 1024;
+
+    public static ConstraintTable parse(String filepath) throws IOException {
+        return parse(filepath, true);
+    }
+
+    public static ConstraintTable parse(String filepath, boolean parallel) throws IOException {
+        try (FileInputStream in = new FileInputStream(filepath); FileChannel channel = in.getChannel()) {
+            long[] bounds = chunkBounds(channel, CHUNK_SIZE);
+            int chunks = bounds.length - 1;
+
+            if (!parallel || chunks == 1) {
+                ConstraintTable table = new ConstraintTable();
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    parseChunk(channel, bounds[chunk], bounds[chunk + 1], table);
+                }
+                return table;
+            }
+
+            List<ConstraintTable> parts;
+            try {
+                parts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                    ConstraintTable part = new ConstraintTable(4096, 8192);
+                    try {
+                        parseChunk(channel, bounds[chunk], bounds[chunk + 1], part);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return part;
+                }).toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // Chunks are concatenated in file order
+            ConstraintTable table = parts.get(0);
+            for (int chunk = 1; chunk < chunks; chunk++) {
+                table.append(parts.get(chunk));
+            }
+            return table;
+        }
+    }
+
+    // Splits the file in chunks of about chunkSize bytes, each one ending right after a line break
+    static long[] chunkBounds(FileChannel channel, int chunkSize) throws IOException {
+        long fileSize = channel.size();
+        long[] bounds = new long[(int) (fileSize / chunkSize) + 2];
+        int count = 1;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < fileSize) {
+            long end = start + chunkSize;
+            if (end >= fileSize) {
+                end = fileSize;
+            } else {
+                end = nextLineStart(channel, end, probe);
+            }
+            bounds[count++] = end;
+            start = end;
+        }
+        if (fileSize == 0) {
+            count++;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long fileSize = channel.size();
+        while (position < fileSize) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return fileSize;
+    }
+
+    static void parseChunk(FileChannel channel, long start, long end, ConstraintTable table) throws IOException {
+        parseChunk(channel, start, end, table, null);
+    }
+
+    // With lines, a malformed line is recorded there and skipped instead of stopping the parse
+    static void parseChunk(FileChannel channel, long start, long end, ConstraintTable table, Lines lines) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        parseBuffer(buffer, start, table, lines);
+    }
+
+    // Table held in memory, e.g. received over the network
+    public static ConstraintTable parse(byte[] bytes) {
+        return parse(bytes, null);
+    }
+
+    static ConstraintTable parse(byte[] bytes, Lines lines) {
+        ConstraintTable table = new ConstraintTable();
+        parseBuffer(ByteBuffer.wrap(bytes), 0, table, lines);
+        return table;
+    }
+
+    // Line numbers of a chunk parsed without stopping at errors, counted from 0 at the start of the chunk
+    static final class Lines {
+        // Line of each row added to the table
+        final IntList rows = new IntList(4096);
+        // Malformed lines, skipped, with the reason
+        final IntList errorLines = new IntList();
+        final List<String> errors = new ArrayList<>();
+        // Line breaks in the chunk
+        int count;
+    }
+
+    // Parses the buffer from 0 to its limit, start is its offset in the whole input for error messages.
+    // Without lines the first malformed line throws, with lines it is recorded and the parse goes on at the next line
+    private static void parseBuffer(ByteBuffer buffer, long start, ConstraintTable table, Lines lines) {
+        int limit = buffer.limit();
+
+        int line = 0;
+        int token = 0;
+        long id = 0;
+        long value = 0;
+        boolean inNumber = false;
+        boolean negative = false;
+        String error = null;
+
+        for (int i = 0; i <= limit; i++) {
+            // A virtual line break closes the last line of the chunk
+            byte b = i < limit ? buffer.get(i) : (byte) '\n';
+
+            if (b >= '0' && b <= '9') {
+                // Ids take 64 bits, durations are checked against the int range when the token ends
+                if (value > (Long.MAX_VALUE - (b - '0')) / 10) {
+                    error = "number too large";
+                } else {
+                    value = value * 10 + (b - '0');
+                    inNumber = true;
+                }
+            } else if (b == '-' && !inNumber && !negative) {
+                negative = true;
+            } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                if (inNumber) {
+                    long signed = negative ? -value : value;
+                    if (token == 0) {
+                        id = signed;
+                    } else if (token == 1) {
+                        if (signed > Integer.MAX_VALUE || signed < Integer.MIN_VALUE) {
+                            error = "duration too large";
+                        } else {
+                            table.addRow(id, (int) signed);
+                        }
+                    } else {
+                        table.addPredecessor(signed);
+                    }
+                    if (error == null) {
+                        token++;
+                    }
+                } else if (negative) {
+                    error = "dangling minus sign";
+                }
+                value = 0;
+                inNumber = false;
+                negative = false;
+
+                if (b == '\n' && error == null) {
+                    if (token == 1) {
+                        error = "task " + id + " has no duration";
+                    } else {
+                        if (token > 1 && lines != null) {
+                            lines.rows.add(line);
+                        }
+                        token = 0;
+                        line++;
+                    }
+                }
+            } else {
+                error = "unexpected character '" + (char) b + "'";
+            }
+
+            if (error != null) {
+                if (lines == null) {
+                    throw malformed(error, start + i);
+                }
+                lines.errorLines.add(line);
+                lines.errors.add(error);
+                // The row of the line, if its duration was read, goes away with it
+                if (token > 1) {
+                    table.removeLastRow();
+                }
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+                token = 0;
+                value = 0;
+                inNumber = false;
+                negative = false;
+                error = null;
+                line++;
+            }
+        }
+        if (lines != null) {
+            // The virtual line break at the end counted one line too many
+            lines.count = line - 1;
+        }
+    }
+
+    private static IllegalArgumentException malformed(String reason, long offset) {
+        return new IllegalArgumentException("Malformed constraint table at byte " + offset + ": " + reason);
+    }
+}
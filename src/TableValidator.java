@@ -0,0 +1,189 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Checks a constraint table before any graph is built, and collects every error with its line number instead of
+// stopping at the first one. Chunks are parsed in parallel, malformed lines are recorded and skipped by the parser;
+// line numbers come from the line breaks counted in each chunk. One pass over the rows then finds the tasks defined
+// twice, and the chunks are checked again in parallel for negative durations, tasks listed as their own predecessor
+// and unknown predecessors. Longer cycles need the whole graph, they are still found by Graph.hasCycle.
+// A table without errors is returned with the report, so the graph is built without parsing the file again.
+
+public class TableValidator {
+    // Errors printed by toString, the report still holds all of them
+    private static final int MAX_PRINTED = 100;
+
+    public record LineError(long line, String message) {
+    }
+
+    public static final class Report {
+        private final String name;
+        private final ConstraintTable table;
+        private final List<LineError> errors;
+
+        private Report(String name, ConstraintTable table, List<LineError> errors) {
+            this.name = name;
+            this.table = table;
+            this.errors = errors;
+        }
+
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        // Errors sorted by line
+        public List<LineError> getErrors() {
+            return errors;
+        }
+
+        // Rows of the table, only when it is valid
+        public ConstraintTable getTable() {
+            if (!isValid()) {
+                throw new IllegalStateException("Constraint table " + name + " has " + errors.size() + " errors");
+            }
+            return table;
+        }
+
+        @Override
+        public String toString() {
+            if (isValid()) {
+                return TextColor.GREEN + "Constraint table " + name + " is valid" + TextColor.RESET + "\n";
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(TextColor.RED).append("Constraint table ").append(name).append(" has ").append(errors.size())
+                    .append(errors.size() == 1 ? " error:" : " errors:").append(TextColor.RESET).append("\n");
+            for (int i = 0; i < Math.min(errors.size(), MAX_PRINTED); i++) {
+                LineError error = errors.get(i);
+                sb.append("  line ").append(TextColor.YELLOW).append(error.line()).append(TextColor.RESET).append(": ").append(error.message()).append("\n");
+            }
+            if (errors.size() > MAX_PRINTED) {
+                sb.append("  ... and ").append(errors.size() - MAX_PRINTED).append(" more\n");
+            }
+            return sb.toString();
+        }
+    }
+
+    public static Report validate(String filepath) throws IOException {
+        return validate(filepath, true);
+    }
+
+    public static Report validate(String filepath, boolean parallel) throws IOException {
+        try (FileInputStream in = new FileInputStream(filepath); FileChannel channel = in.getChannel()) {
+            long[] bounds = TableParser.chunkBounds(channel, TableParser.CHUNK_SIZE);
+            int chunks = bounds.length - 1;
+
+            ConstraintTable[] parts = new ConstraintTable[chunks];
+            TableParser.Lines[] lines = new TableParser.Lines[chunks];
+            try {
+                range(chunks, parallel).forEach(chunk -> {
+                    parts[chunk] = new ConstraintTable(4096, 8192);
+                    lines[chunk] = new TableParser.Lines();
+                    try {
+                        TableParser.parseChunk(channel, bounds[chunk], bounds[chunk + 1], parts[chunk], lines[chunk]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return check(filepath, parts, lines, parallel);
+        }
+    }
+
+    // Table held in memory, e.g. received over the network: one chunk, name is only used in the report
+    public static Report validate(String name, byte[] bytes) {
+        TableParser.Lines lines = new TableParser.Lines();
+        ConstraintTable table = TableParser.parse(bytes, lines);
+        return check(name, new ConstraintTable[] {table}, new TableParser.Lines[] {lines}, false);
+    }
+
+    private static Report check(String name, ConstraintTable[] parts, TableParser.Lines[] lines, boolean parallel) {
+        int chunks = parts.length;
+        // Line number of the first line of each chunk, and row number of its first row
+        long[] firstLine = new long[chunks];
+        int[] firstRow = new int[chunks];
+        long line = 1;
+        int row = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            firstLine[chunk] = line;
+            firstRow[chunk] = row;
+            line += lines[chunk].count;
+            row += parts[chunk].rows();
+        }
+        int rows = row;
+
+        List<List<LineError>> found = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            List<LineError> errors = new ArrayList<>();
+            for (int i = 0; i < lines[chunk].errors.size(); i++) {
+                errors.add(new LineError(firstLine[chunk] + lines[chunk].errorLines.get(i), lines[chunk].errors.get(i)));
+            }
+            found.add(errors);
+        }
+
+        // Tasks defined twice, the later definitions are the errors
+        LongIntMap rowOfId = new LongIntMap(rows);
+        long[] lineOfRow = new long[rows];
+        List<LineError> duplicates = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            ConstraintTable part = parts[chunk];
+            for (int r = 0; r < part.rows(); r++) {
+                int global = firstRow[chunk] + r;
+                lineOfRow[global] = firstLine[chunk] + lines[chunk].rows.get(r);
+                int first = rowOfId.putIfAbsent(part.id(r), global);
+                if (first >= 0) {
+                    duplicates.add(new LineError(lineOfRow[global], "task " + part.id(r) + " is defined twice, first on line " + lineOfRow[first]));
+                }
+            }
+        }
+        found.add(duplicates);
+
+        range(chunks, parallel).forEach(chunk -> {
+            ConstraintTable part = parts[chunk];
+            List<LineError> errors = found.get(chunk);
+            for (int r = 0; r < part.rows(); r++) {
+                long at = lineOfRow[firstRow[chunk] + r];
+                long id = part.id(r);
+                if (part.duration(r) < 0) {
+                    errors.add(new LineError(at, "task " + id + " has a negative duration"));
+                }
+                for (int i = part.predecessorStart(r); i < part.predecessorEnd(r); i++) {
+                    long predecessor = part.predecessor(i);
+                    if (predecessor == id) {
+                        errors.add(new LineError(at, "task " + id + " is its own predecessor"));
+                    } else if (rowOfId.get(predecessor) < 0) {
+                        errors.add(new LineError(at, "task " + id + " has unknown predecessor " + predecessor));
+                    }
+                }
+            }
+        });
+
+        List<LineError> errors = new ArrayList<>();
+        for (List<LineError> list : found) {
+            errors.addAll(list);
+        }
+        // Stable: errors of one line keep the order they were found in
+        errors.sort(Comparator.comparingLong(LineError::line));
+        if (!errors.isEmpty()) {
+            return new Report(name, null, errors);
+        }
+
+        // Chunks are concatenated in file order
+        ConstraintTable table = parts[0];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            table.append(parts[chunk]);
+        }
+        return new Report(name, table, errors);
+    }
+
+    private static IntStream range(int chunks, boolean parallel) {
+        IntStream range = IntStream.range(0, chunks);
+        return parallel && chunks > 1 ? range.parallel() : range;
+    }
+}
@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Watch mode over a directory of constraint tables, run with: java TableWatcher [directory]
+// Every table is analysed once at start. When a table is rewritten, the new content is parsed and compared with the
+// graph in memory by task id (TableDiff), and only the differences are applied: changed durations in place, other
+// changes with a single rebuild of the arrays. Either way only the times the changes reach are recomputed.
+// A table whose modification time and size did not change is skipped, a cyclic or broken table is analysed
+// from scratch the next time it changes.
+
+public class TableWatcher {
+    // The events of one rewrite come in bursts, they are collected until the directory stays quiet this long
+    private static final long SETTLE_MILLIS = 50;
+
+    private record Watched(Graph graph, long modified, long length) {
+    }
+
+    private final Path directory;
+    private final PrintStream out;
+    // Tables analysed so far, graph is null when the last version could not be scheduled
+    private final Map<Path, Watched> tables = new HashMap<>();
+
+    public TableWatcher(Path directory, PrintStream out) {
+        this.directory = directory;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "src/tests");
+        new TableWatcher(directory, System.out).watch();
+    }
+
+    public void watch() throws IOException, InterruptedException {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            // Registered before the first scan, so a table written in between is not missed
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            for (Path table : scan()) {
+                refresh(table);
+            }
+            out.println("Watching " + TextColor.CYAN + directory + TextColor.RESET + " for changes");
+
+            while (true) {
+                TreeSet<Path> changed = new TreeSet<>();
+                boolean overflow = false;
+                WatchKey key = service.take();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            overflow = true;
+                        } else if (isTable((Path) event.context())) {
+                            changed.add(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        out.println(TextColor.RED + "Directory " + directory + " is no longer accessible" + TextColor.RESET);
+                        return;
+                    }
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (overflow) {
+                    // Some events were lost: every known or present table is checked again
+                    changed.addAll(tables.keySet());
+                    changed.addAll(scan());
+                }
+                for (Path table : changed) {
+                    refresh(table);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed from another thread, nothing left to watch
+        }
+    }
+
+    // Brings the graph of a table up to date with its file and reports what changed
+    public void refresh(Path table) {
+        String name = table.getFileName().toString();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(table, BasicFileAttributes.class);
+        } catch (IOException e) {
+            if (tables.remove(table) != null) {
+                out.println(TextColor.YELLOW + name + TextColor.RESET + ": removed");
+            }
+            return;
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        long length = attributes.size();
+        Watched watched = tables.get(table);
+        if (watched != null && watched.modified() == modified && watched.length() == length) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Graph graph = watched == null ? null : watched.graph();
+        String what;
+        try {
+            TableValidator.Report validation = TableValidator.validate(table.toString());
+            if (!validation.isValid()) {
+                // Every error of the new version is shown, the table is analysed from scratch once it is fixed
+                tables.put(table, new Watched(null, modified, length));
+                out.print(TextColor.YELLOW + name + TextColor.RESET + ": " + validation);
+                return;
+            }
+            ConstraintTable content = validation.getTable();
+            if (graph == null) {
+                graph = new Graph(table.toString(), content);
+                what = "analysed";
+            } else {
+                TableDiff diff = TableDiff.between(graph, content);
+                int previousDuration = graph.getProjectDuration();
+                ScheduleChange change = diff.isEmpty() ? null : graph.apply(diff);
+                what = diff + (change == null ? "" : ", " + change.getVerticesVisited() + " vertices visited") + ", duration was " + previousDuration;
+            }
+        } catch (IllegalStateException e) {
+            // The new version has a cycle, it is analysed from scratch once it changes again
+            tables.put(table, new Watched(null, modified, length));
+            out.println(TextColor.YELLOW + name + TextColor.RESET + ": " + TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET);
+            return;
+        } catch (IOException | RuntimeException e) {
+            // A table caught in the middle of a rewrite may be unreadable, the next event brings the complete one
+            tables.put(table, new Watched(null, modified, length));
+            out.println(TextColor.YELLOW + name + TextColor.RESET + ": " + TextColor.RED + "Error: " + e.getMessage() + TextColor.RESET);
+            return;
+        }
+
+        boolean cyclic = graph.hasCycle(false);
+        tables.put(table, new Watched(cyclic ? null : graph, modified, length));
+        long elapsed = (System.nanoTime() - start) / 1_000;
+        if (cyclic) {
+            out.println(TextColor.YELLOW + name + TextColor.RESET + ": " + what + ", " + TextColor.RED + "This graph is not a scheduling graph" + TextColor.RESET);
+            return;
+        }
+        StringBuilder path = new StringBuilder();
+        long[] criticalPath = graph.getCriticalPath();
+        for (int i = 0; i < criticalPath.length; i++) {
+            path.append(TextColor.CYAN).append(criticalPath[i]).append(TextColor.RESET).append(i == criticalPath.length - 1 ? "" : " -> ");
+        }
+        out.println(TextColor.YELLOW + name + TextColor.RESET + ": " + what + " (" + elapsed + " us)");
+        out.println("  Project duration: " + TextColor.GREEN + graph.getProjectDuration() + TextColor.RESET + ", critical path: " + path);
+    }
+
+    private TreeSet<Path> scan() throws IOException {
+        TreeSet<Path> found = new TreeSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (isTable(entry.getFileName()) && Files.isRegularFile(entry)) {
+                    found.add(entry);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isTable(Path name) {
+        return name.toString().endsWith(".txt");
+    }
+}
@@ -1,11 +1,19 @@
 public record TextColor() {
-    public static final String RESET = "\u001B[0m";
-    public static final String BLACK = "\u001B[30m";
-    public static final String RED = "\u001B[31m";
-    public static final String GREEN = "\u001B[32m";
-    public static final String YELLOW = "\u001B[33m";
-    public static final String BLUE = "\u001B[34m";
-    public static final String PURPLE = "\u001B[35m";
-    public static final String CYAN = "\u001B[36m";
-    public static final String WHITE = "\u001B[37m";
+    // Colours can be turned off at the source with -Dgraph.colors=false or the NO_COLOR environment variable,
+    // every code is then an empty string and no escape sequence is ever written
+    public static final boolean ENABLED = !"false".equals(System.getProperty("graph.colors")) && System.getenv("NO_COLOR") == null;
+
+    public static final String RESET = code("\u001B[0m");
+    public static final String BLACK = code("\u001B[30m");
+    public static final String RED = code("\u001B[31m");
+    public static final String GREEN = code("\u001B[32m");
+    public static final String YELLOW = code("\u001B[33m");
+    public static final String BLUE = code("\u001B[34m");
+    public static final String PURPLE = code("\u001B[35m");
+    public static final String CYAN = code("\u001B[36m");
+    public static final String WHITE = code("\u001B[37m");
+
+    private static String code(String escape) {
+        return ENABLED ? escape : "";
+    }
 }
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+// Single pass of Kahn's algorithm over the graph arrays, in O(V + E) and without touching the graph.
+// The level of a vertex is the round in which successive deletion of entry points would remove it,
+// i.e. its rank. Vertices on or behind a cycle are never reached and keep level -1.
+
+public class TopologicalOrder {
+    // Reached vertices sorted by level, then by slot: level l is order[levelOffsets[l] .. levelOffsets[l + 1]]
+    final int[] order;
+    final int[] levelOffsets;
+    final int[] levels;
+    final int levelCount;
+    final boolean cyclic;
+
+    TopologicalOrder(int[] order, int[] levelOffsets, int[] levels, boolean cyclic) {
+        this.order = order;
+        this.levelOffsets = levelOffsets;
+        this.levels = levels;
+        this.levelCount = levelOffsets.length - 1;
+        this.cyclic = cyclic;
+    }
+
+    TopologicalOrder(Graph graph) {
+        int size = graph.size;
+        levels = new int[size];
+        int[] queue = new int[size];
+        int tail = GraphArrays.release(size, IntArray.of(graph.predecessorOffsets), IntArray.of(graph.successorOffsets),
+                IntArray.of(graph.successors), IntArray.of(levels), IntArray.of(queue));
+
+        // Vertices never released are on a cycle or depend on one
+        cyclic = tail < size;
+        int maxLevel = -1;
+        for (int k = 0; k < tail; k++) {
+            maxLevel = Math.max(maxLevel, levels[queue[k]]);
+        }
+
+        // Counting sort of the reached vertices by level, keeping ascending slot order inside a level
+        levelCount = maxLevel + 1;
+        levelOffsets = new int[levelCount + 1];
+        for (int v = 0; v < size; v++) {
+            if (levels[v] >= 0) {
+                levelOffsets[levels[v] + 1]++;
+            }
+        }
+        for (int level = 0; level < levelCount; level++) {
+            levelOffsets[level + 1] += levelOffsets[level];
+        }
+        order = new int[tail];
+        int[] next = new int[levelCount];
+        System.arraycopy(levelOffsets, 0, next, 0, levelCount);
+        for (int v = 0; v < size; v++) {
+            if (levels[v] >= 0) {
+                order[next[levels[v]]++] = v;
+            }
+        }
+    }
+
+    // Order of an acyclic graph whose ranks are already known, e.g. kept up to date by incremental edits:
+    // the same order as Kahn's pass, in O(V) and without reading the edges
+    TopologicalOrder(int[] ranks, int size) {
+        levels = Arrays.copyOf(ranks, size);
+        cyclic = false;
+        int maxLevel = -1;
+        for (int v = 0; v < size; v++) {
+            maxLevel = Math.max(maxLevel, levels[v]);
+        }
+        levelCount = maxLevel + 1;
+        levelOffsets = new int[levelCount + 1];
+        for (int v = 0; v < size; v++) {
+            levelOffsets[levels[v] + 1]++;
+        }
+        for (int level = 0; level < levelCount; level++) {
+            levelOffsets[level + 1] += levelOffsets[level];
+        }
+        order = new int[size];
+        int[] next = Arrays.copyOf(levelOffsets, levelCount);
+        for (int v = 0; v < size; v++) {
+            order[next[levels[v]]++] = v;
+        }
+    }
+
+    // Levels in descending order, vertices of the same level still in ascending slot order
+    int[] descendingOrder() {
+        int[] descending = new int[order.length];
+        int next = 0;
+        for (int level = levelCount - 1; level >= 0; level--) {
+            for (int i = levelOffsets[level]; i < levelOffsets[level + 1]; i++) {
+                descending[next++] = order[i];
+            }
+        }
+        return descending;
+    }
+}
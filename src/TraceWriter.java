@@ -0,0 +1,185 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Sends the output to the console as is and to a trace file without colour escape sequences.
+// Escapes are stripped into fixed-size blocks which a background thread writes to the file, so the
+// caller never waits on file I/O. Blocks come from a bounded pool: when the writer falls behind,
+// the caller waits for a free block instead of queueing without limit.
+
+public class TraceWriter extends OutputStream {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BLOCKS = 16;
+
+    private static class Block {
+        final byte[] data = new byte[BLOCK_SIZE];
+        int length;
+        boolean flush;
+        boolean last;
+    }
+
+    private final OutputStream console;
+    private final OutputStream file;
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCKS);
+    private final BlockingQueue<Block> filled = new ArrayBlockingQueue<>(BLOCKS);
+    private final Thread writer;
+
+    private Block current;
+    // An escape sequence may be split between two writes
+    private boolean inEscape;
+    private boolean closed;
+    private volatile IOException failure;
+
+    // console may be null when only the trace file is wanted
+    public TraceWriter(OutputStream console, OutputStream file) {
+        this.console = console;
+        this.file = file;
+        for (int i = 0; i < BLOCKS; i++) {
+            free.add(new Block());
+        }
+        this.writer = new Thread(this::drain, "trace-writer");
+        // Never keeps the JVM alive on its own, close() is what waits for the file to be written
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (console != null) {
+            console.write(b, off, len);
+        }
+        writeTraceOnly(b, off, len);
+    }
+
+    // Writes to the trace file only, e.g. to record what the user typed
+    public void writeTraceOnly(byte[] b) throws IOException {
+        writeTraceOnly(b, 0, b.length);
+    }
+
+    public synchronized void writeTraceOnly(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            byte currentByte = b[i];
+            if (inEscape) {
+                // Ignore until the end of the sequence
+                inEscape = currentByte != 'm';
+            } else if (currentByte == 27) {
+                inEscape = true;
+            } else {
+                if (current == null) {
+                    current = take();
+                }
+                current.data[current.length++] = currentByte;
+                if (current.length == BLOCK_SIZE) {
+                    submit(false, false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (console != null) {
+            console.flush();
+        }
+        submit(true, false);
+    }
+
+    // Hands the remaining output to the writer thread, waits for it to reach the file and closes the file.
+    // The console is left open.
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (console != null) {
+            console.flush();
+        }
+        submit(true, true);
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the trace file");
+        }
+        file.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void submit(boolean flush, boolean last) throws IOException {
+        if (current == null) {
+            if (!flush && !last) {
+                return;
+            }
+            current = take();
+        }
+        current.flush = flush;
+        current.last = last;
+        try {
+            filled.put(current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the trace");
+        }
+        current = null;
+    }
+
+    private Block take() throws IOException {
+        try {
+            Block block = free.take();
+            block.length = 0;
+            return block;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the trace");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Trace is closed");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Block block;
+            try {
+                block = filled.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    file.write(block.data, 0, block.length);
+                    if (block.flush) {
+                        file.flush();
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            boolean last = block.last;
+            free.add(block);
+            if (last) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+// Transitive reduction of an acyclic graph: an edge u -> v is implied when another path leads from u to v.
+// Vertices are walked in reverse topological order with one reachability bitset each. The successors of a vertex are
+// taken in topological order, so a successor already in the bitset is reached through an earlier one and its edge is implied.
+// A bitset over every vertex would take V^2 bits, so targets are handled in windows of topological positions
+// sized to fit MAX_WORDS longs: a window only involves the vertices placed before its end.
+// Overall O(E * V / 64) word operations.
+
+public class TransitiveReduction {
+    private static final int MAX_WORDS = 8 << 20;
+
+    // Flags the implied edges of the graph by index in its predecessors array and returns how many there are
+    static int find(Graph graph, boolean[] implied) {
+        int[] order = graph.topology().order;
+        int size = order.length;
+        int[] positionOf = new int[graph.size];
+        for (int k = 0; k < size; k++) {
+            positionOf[order[k]] = k;
+        }
+
+        // Successors by position, in topological order, with the index of each edge in the predecessors array
+        int[] offsets = new int[size + 1];
+        for (int k = 0; k < size; k++) {
+            int v = order[k];
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                offsets[positionOf[graph.predecessors[i]] + 1]++;
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            offsets[k + 1] += offsets[k];
+        }
+        int[] successors = new int[offsets[size]];
+        int[] edges = new int[offsets[size]];
+        int[] next = new int[size];
+        System.arraycopy(offsets, 0, next, 0, size);
+        for (int k = 0; k < size; k++) {
+            int v = order[k];
+            for (int i = graph.predecessorOffsets[v]; i < graph.predecessorOffsets[v + 1]; i++) {
+                int predecessor = positionOf[graph.predecessors[i]];
+                successors[next[predecessor]] = k;
+                edges[next[predecessor]++] = i;
+            }
+        }
+
+        int words = Math.max(1, Math.min((size + 63) / 64, MAX_WORDS / Math.max(size, 1)));
+        int window = words * 64;
+        long[] reach = new long[size * words];
+        // Words of each bitset that can be non-zero: [firstWord, lastWord), most bitsets only cover part of a window
+        int[] firstWord = new int[size];
+        int[] lastWord = new int[size];
+        int count = 0;
+        for (int low = 0; low < size; low += window) {
+            int high = Math.min(size, low + window);
+            // Only vertices placed before the window end can reach its targets
+            Arrays.fill(reach, 0, high * words, 0);
+            for (int k = high - 1; k >= 0; k--) {
+                int base = k * words;
+                int first = words;
+                int last = 0;
+                for (int i = offsets[k]; i < offsets[k + 1]; i++) {
+                    int successor = successors[i];
+                    if (successor >= high) {
+                        break;
+                    }
+                    if (successor >= low) {
+                        int bit = successor - low;
+                        long mask = 1L << bit;
+                        if ((reach[base + (bit >>> 6)] & mask) != 0) {
+                            implied[edges[i]] = true;
+                            count++;
+                            continue;
+                        }
+                        reach[base + (bit >>> 6)] |= mask;
+                        first = Math.min(first, bit >>> 6);
+                        last = Math.max(last, (bit >>> 6) + 1);
+                    }
+                    int from = successor * words;
+                    for (int w = firstWord[successor]; w < lastWord[successor]; w++) {
+                        reach[base + w] |= reach[from + w];
+                    }
+                    if (firstWord[successor] < lastWord[successor]) {
+                        first = Math.min(first, firstWord[successor]);
+                        last = Math.max(last, lastWord[successor]);
+                    }
+                }
+                firstWord[k] = first;
+                lastWord[k] = last;
+            }
+        }
+        return count;
+    }
+}
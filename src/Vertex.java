@@ -1,80 +1,87 @@
-import java.util.ArrayList;
-import java.util.List;
+// Lightweight view over one slot of a graph, the data itself lives in the graph arrays
 
 public class Vertex {
-    public int id;
-    public int duration;
-    public List<Integer> predecessors;
+    private final Graph graph;
+    private final int slot;
 
-    public int earliestTime;
-    public int latestTime;
-
-    private int rank = -1;
+    Vertex(Graph graph, int slot) {
+        this.graph = graph;
+        this.slot = slot;
+    }
 
-    public Vertex(String tableLine) {
-        String[] line = tableLine.split(" ");
-        this.id = Integer.parseInt(line[0]);
-        this.duration = Integer.parseInt(line[1]);
+    // Alpha and omega are not tasks and have no id, see getLabel()
+    public boolean isTask() {
+        return graph.isTask(slot);
+    }
 
-        this.predecessors = new ArrayList<>();
-        for (int i = 2; i < line.length; i++) {
-            this.predecessors.add(Integer.parseInt(line[i]));
+    public long getId() {
+        if (!isTask()) {
+            throw new IllegalStateException(getLabel() + " is not a task and has no id");
         }
+        return graph.ids[slot];
     }
 
-    public Vertex(int id, int duration) {
-        this.id = id;
-        this.duration = duration;
-        this.predecessors = new ArrayList<>();
+    // Task id, or the displayed name of alpha and omega
+    public String getLabel() {
+        return graph.label(slot);
     }
 
-    public Vertex(Vertex vertex) {
-        this.id = vertex.id;
-        this.duration = vertex.duration;
-        this.rank = vertex.rank;
-        this.predecessors = new ArrayList<>(vertex.predecessors);
-        this.earliestTime = vertex.earliestTime;
-        this.latestTime = vertex.latestTime;
+    public int getDuration() {
+        return graph.durations[slot];
     }
 
-    public void addPredecessor(int predecessor) {
-        if (!this.predecessors.contains(predecessor)) {
-            this.predecessors.add(predecessor);
-        }
+    public int getRank() {
+        return graph.ranks[slot];
     }
 
-    public void setRank(int rank) {
-        if (rank < 0) {
-            throw new IllegalArgumentException("Rank must be positive");
-        }
-        this.rank = rank;
+    public int getEarliestTime() {
+        return graph.earliestTimes[slot];
     }
 
-    public int getRank() {
-        return this.rank;
+    public int getLatestTime() {
+        return graph.latestTimes[slot];
+    }
+
+    public int getTotalFloat() {
+        return graph.latestTimes[slot] - graph.earliestTimes[slot];
+    }
+
+    // Ids of the tasks this vertex waits for, alpha is left out like in the constraint table
+    public long[] getPredecessors() {
+        int start = graph.predecessorOffsets[slot];
+        int end = graph.predecessorOffsets[slot + 1];
+        LongList predecessors = new LongList(Math.max(1, end - start));
+        for (int i = start; i < end; i++) {
+            if (graph.isTask(graph.predecessors[i])) {
+                predecessors.add(graph.ids[graph.predecessors[i]]);
+            }
+        }
+        return predecessors.toArray();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("ID: ").append(TextColor.CYAN).append(this.id).append(TextColor.RESET);
+        sb.append("ID: ").append(TextColor.CYAN).append(getLabel()).append(TextColor.RESET);
 
 
-        if (this.rank != -1) {
-            sb.append(" Rank: ").append(TextColor.PURPLE).append(this.rank).append(TextColor.RESET);
+        if (getRank() != -1) {
+            sb.append(" Rank: ").append(TextColor.PURPLE).append(getRank()).append(TextColor.RESET);
         }
 
-        sb.append(" Duration: ").append(TextColor.YELLOW).append(this.duration).append(TextColor.RESET);
+        sb.append(" Duration: ").append(TextColor.YELLOW).append(getDuration()).append(TextColor.RESET);
 
-        if (this.predecessors.size() > 0) {
+        int start = graph.predecessorOffsets[slot];
+        int end = graph.predecessorOffsets[slot + 1];
+        if (end > start) {
             sb.append(" Predecessors: ");
         }
 
         sb.append(TextColor.GREEN);
 
-        for (int i = 0; i < this.predecessors.size(); i++) {
-            sb.append(this.predecessors.get(i));
-            if (i != this.predecessors.size() - 1) {
+        for (int i = start; i < end; i++) {
+            sb.append(graph.label(graph.predecessors[i]));
+            if (i != end - 1) {
                 sb.append(", ");
             }
         }